@@ -0,0 +1,33 @@
+package benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto di ingresso dei benchmark: esegue JMH con il profiler gc sempre attivo, così che
+ * accanto al throughput venga riportato anche il tasso di allocazione di ogni benchmark.
+ */
+public class BenchmarkRunner {
+
+    /**
+     * Avvia i benchmark. Accetta le stesse opzioni da riga di comando di JMH
+     * (ad esempio un filtro sul nome del benchmark).
+     *
+     * @param args Opzioni di JMH.
+     * @throws RunnerException se l'esecuzione dei benchmark fallisce.
+     * @throws CommandLineOptionException se le opzioni non sono valide.
+     */
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .jvmArgsAppend("-Djava.awt.headless=true")
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,53 @@
+package benchmark;
+
+import controller.Controller;
+import model.Deck;
+import model.GameEngine;
+import model.Hand;
+import model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark della preparazione dei dati di rendering delle carte, eseguita a ogni repaint.
+ * <p>
+ * La mano viene da un {@link GameEngine} con uno shoe a seme fisso e senza registratore: il
+ * controller serve solo per il metodo misurato e non gioca alcun round, quindi il benchmark
+ * non scrive nello storico delle mani.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ControllerBenchmark {
+
+    private Controller controller;
+    private Hand hand;
+
+    @Setup
+    public void setup() {
+        controller = new Controller(Player.getInstance());
+        GameEngine engine = new GameEngine(new Deck(4, new Random(42)));
+        engine.startRound();
+        hand = engine.getPlayerHand();
+    }
+
+    @Benchmark
+    public List<Controller.CardImageData> getPlayerCardsData() {
+        return controller.getPlayerCardsData(hand, 400, 500, false);
+    }
+}
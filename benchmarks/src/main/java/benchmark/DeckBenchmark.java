@@ -0,0 +1,68 @@
+package benchmark;
+
+import model.Card;
+import model.Deck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark della costruzione, del rimescolamento e della pesca dallo shoe.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DeckBenchmark {
+
+    @Param({"1", "4", "8"})
+    private int numDecks;
+
+    private Random random;
+    private Deck deck;
+
+    @Setup
+    public void setup() {
+        random = new Random(42);
+        deck = new Deck(numDecks, random);
+    }
+
+    /**
+     * Costruzione e primo rimescolamento di un nuovo shoe.
+     */
+    @Benchmark
+    public Deck construct() {
+        return new Deck(numDecks, random);
+    }
+
+    /**
+     * Rimescolamento sul posto di uno shoe esistente.
+     */
+    @Benchmark
+    public Deck shuffle() {
+        deck.shuffle();
+        return deck;
+    }
+
+    /**
+     * Pesca di una carta, con rimescolamento alla carta di taglio come tra un round e l'altro.
+     */
+    @Benchmark
+    public Card drawCard() {
+        deck.shuffleIfNeeded();
+        return deck.drawCard();
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import model.Deck;
+import model.GameEngine;
+import model.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import strategy.BasicStrategy;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark delle singole azioni di {@link GameEngine}. Ogni azione richiede un round in corso,
+ * quindi hit e stand sono misurati insieme a startRound: il costo dell'azione è la differenza
+ * rispetto a {@link #startRound()}. Con più posti i bot giocano con la strategia base e tutti i
+ * posti vengono valutati a fine round.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EngineBenchmark {
+
+    @Param({"1", "7"})
+    public int seats;
+
+    private GameEngine engine;
+
+    @Setup
+    public void setup() {
+        engine = new GameEngine(new Deck(4, new Random(42)), seats, BasicStrategy.forDecks(4)::shouldHit);
+    }
+
+    @Benchmark
+    public GameState startRound() {
+        return engine.startRound();
+    }
+
+    @Benchmark
+    public GameState startRoundAndHit() {
+        GameState state = engine.startRound();
+        return state.isRoundOver() ? state : engine.hit();
+    }
+
+    @Benchmark
+    public GameState startRoundAndStand() {
+        GameState state = engine.startRound();
+        return state.isRoundOver() ? state : engine.stand();
+    }
+}
@@ -0,0 +1,62 @@
+package benchmark;
+
+import model.Card;
+import model.Deck;
+import model.Hand;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark del calcolo del punteggio di una mano e del valore delle carte.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HandBenchmark {
+
+    @Param({"2", "5"})
+    private int handSize;
+
+    private Hand hand;
+    private Card card;
+
+    @Setup
+    public void setup() {
+        Deck deck = new Deck(4, new Random(42));
+        hand = new Hand();
+        for (int i = 0; i < handSize; i++) {
+            hand.addToHand(deck.drawCard());
+        }
+        card = Card.of(Card.code(Card.ACE, 0));
+    }
+
+    @Benchmark
+    public int getSum() {
+        return hand.getSum();
+    }
+
+    @Benchmark
+    public int getAceCount() {
+        return hand.getAceCount();
+    }
+
+    @Benchmark
+    public int getValueOfAce() {
+        return card.getValueOfAce();
+    }
+}
@@ -0,0 +1,75 @@
+package benchmark;
+
+import history.HandHistoryWriter;
+import model.Deck;
+import model.GameEngine;
+import model.GameState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import strategy.BasicStrategy;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark di un round completo con e senza lo storico delle mani: la differenza tra le due
+ * configurazioni è il costo della registrazione.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HistoryBenchmark {
+
+    @Param({"false", "true"})
+    public boolean record;
+
+    private GameEngine engine;
+    private HandHistoryWriter writer;
+    private File directory;
+
+    @Setup
+    public void setup() throws IOException {
+        engine = new GameEngine(new Deck(4, new Random(42)), 3, BasicStrategy.forDecks(4)::shouldHit);
+        if (record) {
+            directory = Files.createTempDirectory("history").toFile();
+            writer = new HandHistoryWriter(directory, HandHistoryWriter.DEFAULT_SEGMENT_RECORDS);
+            engine.setRecorder(writer);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (writer != null) {
+            writer.close();
+            File[] files = directory.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            directory.delete();
+        }
+    }
+
+    @Benchmark
+    public GameState round() {
+        GameState state = engine.startRound();
+        return state.isRoundOver() ? state : engine.stand();
+    }
+}
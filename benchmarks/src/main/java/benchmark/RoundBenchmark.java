@@ -0,0 +1,50 @@
+package benchmark;
+
+import model.Deck;
+import model.GameEngine;
+import model.Player;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark di un round completo risolto da {@link Player}:
+ * initializeGame, dealerTurn e determineWinner.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RoundBenchmark {
+
+    private GameEngine engine;
+    private Player player;
+
+    @Setup
+    public void setup() {
+        engine = new GameEngine(new Deck(4, new Random(42)));
+        player = Player.getInstance();
+    }
+
+    @Benchmark
+    public String round() {
+        engine.startRound();
+        player.initializeGame(engine);
+        if (!engine.isRoundOver()) {
+            player.dealerTurn();
+        }
+        return player.determineWinner();
+    }
+}
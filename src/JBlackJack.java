@@ -1,7 +1,20 @@
+import controller.CardImageCache;
 import controller.Controller;
+import history.HandHistoryWriter;
+import history.Replay;
+import history.RoundRecord;
+import log.GameLog;
+import metrics.GameMetrics;
 import model.Player;
+import store.StatsStore;
+import store.UserStore;
+import view.AudioEngine;
+import view.GameGUI;
 import view.GameMenu;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * La classe principale che inizializza il gioco del Blackjack.
  */
@@ -10,16 +23,62 @@ public class JBlackJack {
     /**
      * Metodo principale per avviare il gioco del Blackjack.
      * 
-     * @param args Argomenti da riga di comando (non utilizzati in questa applicazione).
+     * @param args Argomenti da riga di comando: "--replay segmento round" rigioca un round
+     *             registrato nello storico delle mani invece di mostrare il menu.
+     * @throws IOException se il segmento da rigiocare non è leggibile.
      */
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+        // Carica la musica del menu, le immagini delle carte e gli effetti sonori in background mentre
+        // viene mostrato il menu; il menu che avvia la musica attende solo la sua decodifica
+        Thread preload = new Thread(() -> {
+            AudioEngine.preloadMusic(GameMenu.MUSIC_PATH);
+            CardImageCache.preload();
+            AudioEngine.preload("src/resources/click.wav", "src/resources/flip.wav", "src/resources/cardsound.wav");
+        }, "preload");
+        preload.setDaemon(true);
+        preload.start();
+
         // Crea un'istanza singola di Player utilizzando il pattern Singleton
         Player player = Player.getInstance();
         
         // Crea un'istanza di Controller passando l'istanza del giocatore
         Controller controller = new Controller(player);
         
-        // Crea una nuova istanza di GameMenu passando il controller
-        new GameMenu(controller);
+        if (args.length == 3 && args[0].equals("--replay")) {
+            // Rigioca un round dello storico in una finestra di gioco
+            RoundRecord record = Replay.find(new File(args[1]), Long.parseLong(args[2]));
+            if (record == null) {
+                System.err.println("Round " + args[2] + " not found in " + args[1]);
+                System.exit(1);
+            }
+            player.setPlayerName("Replay");
+            new GameGUI(player, controller);
+            controller.replay(record);
+        } else {
+            // Apre utenti e statistiche salvati qui, fuori dall'EDT, così il login non attende la lettura dei log
+            // (né l'importazione del vecchio users.csv); se un altro processo (ad esempio un server) li tiene
+            // aperti nella stessa cartella il gioco non parte
+            try {
+                UserStore.getDefault();
+                StatsStore.getDefault();
+            } catch (IllegalStateException e) {
+                System.err.println(e.getMessage() + ": " + e.getCause().getMessage());
+                System.exit(1);
+            }
+            // Crea una nuova istanza di GameMenu passando il controller
+            new GameMenu(controller);
+        }
+
+        // Scrive periodicamente le metriche di gioco in metrics.log
+        GameMetrics.startReporter();
+
+        // All'uscita chiude le linee audio, salva le statistiche in sospeso, lo storico delle mani, le metriche e il log
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            AudioEngine.shutdown();
+            StatsStore.closeDefault();
+            HandHistoryWriter.closeDefault();
+            GameMetrics.stopReporter();
+            GameLog.close();
+        }, "shutdown"));
     }
 }
@@ -0,0 +1,104 @@
+package controller;
+
+import model.Card;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Classe CardImageCache che carica una sola volta le immagini delle 52 carte e del dorso.
+ * <p>
+ * Le immagini vengono ridimensionate a 120x170 e impacchettate in un unico atlante compatibile
+ * con lo schermo; ogni carta è una sotto-immagine dell'atlante indicizzata dal codice della
+ * carta, quindi durante il repaint non c'è alcun accesso alle risorse né decodifica.
+ */
+public final class CardImageCache {
+
+    /** Larghezza delle immagini delle carte. */
+    public static final int CARD_WIDTH = 120;
+    /** Altezza delle immagini delle carte. */
+    public static final int CARD_HEIGHT = 170;
+
+    private static final int BACK = Card.CARD_COUNT; // indice del dorso nell'atlante
+    private static final Image[] IMAGES = new Image[Card.CARD_COUNT + 1];
+
+    static {
+        BufferedImage atlas = createAtlas((Card.CARD_COUNT + 1) * CARD_WIDTH, CARD_HEIGHT);
+        Graphics2D g = atlas.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+        g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        for (int code = 0; code <= Card.CARD_COUNT; code++) {
+            String path = code == BACK ? "Cards/BACK.png" : Card.of(code).getImagePath();
+            int x = code * CARD_WIDTH;
+            try {
+                URL url = CardImageCache.class.getResource(path);
+                if (url == null) {
+                    throw new IOException("Missing card image " + path);
+                }
+                g.drawImage(ImageIO.read(url), x, 0, CARD_WIDTH, CARD_HEIGHT, null);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            IMAGES[code] = atlas.getSubimage(x, 0, CARD_WIDTH, CARD_HEIGHT);
+        }
+        g.dispose();
+    }
+
+    private CardImageCache() { }
+
+    /**
+     * Forza il caricamento dell'atlante. Chiamato all'avvio su un thread in background,
+     * così il primo repaint della partita non deve attendere la decodifica delle immagini.
+     */
+    public static void preload() {
+        // il caricamento avviene nell'inizializzatore statico
+    }
+
+    /**
+     * Restituisce l'immagine di una carta.
+     *
+     * @param code Il codice della carta.
+     * @return L'immagine della carta, già ridimensionata.
+     */
+    public static Image get(int code) {
+        return IMAGES[code];
+    }
+
+    /**
+     * Restituisce l'immagine di una carta.
+     *
+     * @param card La carta.
+     * @return L'immagine della carta, già ridimensionata.
+     */
+    public static Image get(Card card) {
+        return IMAGES[card.getCode()];
+    }
+
+    /**
+     * Restituisce l'immagine del dorso delle carte.
+     *
+     * @return L'immagine del dorso, già ridimensionata.
+     */
+    public static Image getBack() {
+        return IMAGES[BACK];
+    }
+
+    /**
+     * Crea l'atlante, compatibile con lo schermo quando disponibile.
+     *
+     * @param width Larghezza dell'atlante.
+     * @param height Altezza dell'atlante.
+     * @return L'immagine dell'atlante.
+     */
+    private static BufferedImage createAtlas(int width, int height) {
+        if (GraphicsEnvironment.isHeadless()) {
+            return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        }
+        GraphicsConfiguration config = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        return config.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+    }
+}
@@ -1,16 +1,31 @@
 package controller;
 
+import history.HandHistoryWriter;
+import history.Replay;
+import history.RoundRecord;
+import log.GameEvent;
+import log.GameLog;
+import log.Level;
+import metrics.GameMetrics;
+import metrics.Histogram;
 import model.Hand;
+import model.HandRecorder;
 import view.GameMenu;
 import view.GameGUI;
 import model.Card;
 import model.Deck;
+import model.GameEngine;
+import model.GameState;
 import model.Player;
+import strategy.BasicStrategy;
+import util.GameExecutors;
 
-import javax.swing.*;
 import java.awt.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Classe Controller che gestisce la logica del gioco Blackjack.
@@ -18,76 +33,101 @@ import java.util.List;
 public class Controller {
 
     private Player player;
+    // Posti al tavolo, giocatore compreso: di default il giocatore e due bot, modificabile con -Dblackjack.seats
+    private static final int SEATS = Integer.getInteger("blackjack.seats", 3);
+
+    // Motore con uno shoe da 4 mazzi riutilizzato tra i round; i bot consultano la tabella della strategia base
+    private final GameEngine engine = new GameEngine(new Deck(4), SEATS, BasicStrategy.forDecks(4)::shouldHit);
+
+    // Thread dedicato alla logica di gioco: le azioni dell'interfaccia vengono accodate qui invece di
+    // essere eseguite sul thread di Swing; lo stato torna all'interfaccia tramite gli eventi di Player.
+    // Le azioni di un round rigiocato vengono programmate sullo stesso thread, senza bloccarlo.
+    private final ScheduledExecutorService gameExecutor =
+            Executors.newSingleThreadScheduledExecutor(GameExecutors.daemonThreads("game-logic"));
+
+    // Pausa tra le azioni di un round rigiocato, per seguirle a video
+    private static final long REPLAY_STEP_MILLIS = 800;
+
+    private GameEngine active = engine; // motore del round mostrato: quello del tavolo o quello di un round rigiocato
+    private GameEngine replaying;       // motore del round in riproduzione, null se non c'è; usato solo dal thread di gioco
 
     /**
-     * Costruttore della classe Controller.
+     * Costruttore della classe Controller. Non distribuisce carte: il primo round inizia con
+     * {@link #startAction()}, dopo il login.
      *
      * @param player Oggetto Player che rappresenta il giocatore.
      */
     public Controller(Player player) {
         this.player = player;
-        startGame();
+        engine.setMetrics(GameMetrics.ENGINE); // i round rigiocati non vengono contati
+        try {
+            // ogni round viene registrato nello storico delle mani; il segmento viene creato al primo round
+            engine.setRecorder(HandHistoryWriter.getDefault());
+        } catch (IllegalStateException e) {
+            e.printStackTrace(); // senza storico si gioca comunque
+        }
     }
 
     /**
-     * Metodo per avviare una nuova partita.
+     * Metodo per avviare una nuova partita. La distribuzione avviene sul thread della logica di gioco.
      */
     public void startGame() {
-        Deck deck = new Deck(4);  // Crea un nuovo mazzo con 4 mazzi di carte
-        Hand dealer = new Hand();  // Mano del dealer
-        Hand player1 = new Hand(); // Mano del giocatore
-        Hand bot1 = new Hand();    // Mano del bot1
-        Hand bot2 = new Hand();    // Mano del bot2
-
-        Card hiddenCard = deck.drawCard(); // Estrae una carta per nasconderla
-        dealer.addToHand(hiddenCard);  // Aggiunge la carta nascosta al dealer
-        dealer.addToHand(deck.drawCard());  // Estrae e aggiunge una carta visibile al dealer
-
-        // Distribuisce 2 carte a player1, bot1 e bot2
-        for (int i = 0; i < 2; i++) {
-            player1.addToHand(deck.drawCard());
-            bot1.addToHand(deck.drawCard());
-            bot2.addToHand(deck.drawCard());
-        }
+        submit(GameMetrics.START, () -> {
+            replaying = null; // un nuovo round interrompe la riproduzione in corso
+            active = engine;
+            engine.startRound(); // Distribuisce le carte al dealer, al giocatore e ai bot, che giocano subito
 
-        // Inizializza il gioco per il giocatore e i bot
-        player.initializeGame(dealer, player1, hiddenCard, deck);
+            // Inizializza il gioco per il giocatore
+            player.initializeGame(engine);
 
-        // Stampa le carte iniziali del gioco
-        System.out.println("Start game player-dealer: " + player1.getHand() + dealer.getHand());
-        System.out.println("Start game bot1-bot2:     " + bot1.getHand() + bot2.getHand());
+            // Registra le carte iniziali del gioco
+            GameLog.hand(Level.INFO, GameEvent.DEAL, 0, player.getPlayer1());
+            GameLog.hand(Level.INFO, GameEvent.DEAL, HandRecorder.DEALER, player.getDealer());
+            for (int i = 1; i <= player.getBotCount(); i++) {
+                GameLog.hand(Level.INFO, GameEvent.DEAL, i, player.getBot(i));
+            }
+        });
     }
 
     /**
      * Metodo chiamato quando il giocatore decide di "colpire" (richiedere una carta aggiuntiva).
      */
     public void hitAction() {
-        player.playerHit(); // Il giocatore colpisce (aggiunge una carta)
-        // Se il giocatore ha superato 21 o ha esattamente 21, il turno passa al dealer e ai bot
-        if (player.getPlayer1().getSum() > 21 || player.getPlayer1().getSum() == 21 ) {
-            player.dealerTurn();
-            Player.incrementGamesPlayed();
-            System.out.println("Stay action performed"); // Stampa che è stato eseguito il comando "stay"
-        }
-        System.out.println("Hit action performed"); // Stampa che è stato eseguito il comando "hit"
+        submit(GameMetrics.HIT, () -> {
+            if (replaying != null || active.isRoundOver()) {
+                return; // clic arrivato durante una riproduzione o dopo la fine del round
+            }
+            player.playerHit(); // Il giocatore colpisce (aggiunge una carta)
+            // Se il giocatore ha superato 21 o ha esattamente 21, il motore passa il turno al dealer
+            if (active.isRoundOver()) {
+                GameLog.event(Level.DEBUG, GameEvent.STAY_ACTION); // Registra che è stato eseguito il comando "stay"
+            }
+            GameLog.event(Level.DEBUG, GameEvent.HIT_ACTION); // Registra che è stato eseguito il comando "hit"
+        });
     }
 
     /**
      * Metodo chiamato quando il giocatore decide di "stare" (non richiedere ulteriori carte).
      */
     public void stayAction() {
-    	Player.incrementGamesPlayed();
-        player.dealerTurn(); // Il dealer gioca il suo turno
-        System.out.println("Stay action performed"); // Stampa che è stato eseguito il comando "stay"
+        submit(GameMetrics.STAY, () -> {
+            if (replaying != null || active.isRoundOver()) {
+                return; // clic arrivato durante una riproduzione o dopo la fine del round
+            }
+            player.dealerTurn(); // Il dealer gioca il suo turno
+            GameLog.event(Level.DEBUG, GameEvent.STAY_ACTION); // Registra che è stato eseguito il comando "stay"
+        });
     }
 
     /**
      * Metodo chiamato quando il giocatore decide di "riprovare" (avviare una nuova partita).
      */
     public void retryAction() {
+        long start = System.nanoTime();
         new GameGUI(player, this); // Crea una nuova interfaccia grafica per il gioco
         startGame(); // Avvia una nuova partita
-        System.out.println("Retry action performed"); // Stampa che è stato eseguito il comando "retry"
+        GameMetrics.RETRY.recordSince(start); // solo la parte sul thread di Swing; la distribuzione è misurata da START
+        GameLog.event(Level.DEBUG, GameEvent.RETRY_ACTION); // Registra che è stato eseguito il comando "retry"
     }
 
     /**
@@ -96,71 +136,162 @@ public class Controller {
     public void startAction() {
         new GameGUI(player, this); // Crea una nuova interfaccia grafica per il gioco
         startGame(); // Avvia una nuova partita
-        System.out.println("Start action performed"); // Stampa che è stato eseguito il comando "start"
+        GameLog.event(Level.DEBUG, GameEvent.START_ACTION); // Registra che è stato eseguito il comando "start"
+    }
+
+    /**
+     * Rigioca un round registrato nello storico delle mani: le carte escono nell'ordine registrato
+     * e le decisioni del giocatore vengono ripetute una alla volta, a {@value #REPLAY_STEP_MILLIS} ms
+     * di distanza, attraverso Player, così l'interfaccia le mostra come in una partita normale.
+     * Ogni decisione è un comando programmato sul thread di gioco, che tra una decisione e l'altra
+     * resta libero; i clic su "hit" e "stay" durante la riproduzione vengono ignorati e un nuovo
+     * round la interrompe.
+     *
+     * @param record Il round da rigiocare.
+     */
+    public void replay(RoundRecord record) {
+        submit(() -> {
+            GameEngine replay = Replay.engineFor(record);
+            active = replay;
+            replaying = replay;
+            replay.startRound();
+            player.initializeGame(replay, false); // il round rigiocato non entra nelle statistiche
+            GameLog.value(Level.INFO, GameEvent.REPLAY, record.getRound());
+            GameLog.hand(Level.INFO, GameEvent.DEAL, 0, player.getPlayer1());
+            GameLog.hand(Level.INFO, GameEvent.DEAL, HandRecorder.DEALER, player.getDealer());
+            replayStep(replay, record, 0);
+        });
+    }
+
+    /**
+     * Programma la prossima decisione di un round rigiocato o, se il round è concluso, termina la
+     * riproduzione confrontando l'esito con quello registrato. Eseguito sul thread di gioco.
+     *
+     * @param replay Il motore del round rigiocato.
+     * @param record Il round registrato.
+     * @param step Indice della prossima decisione del giocatore.
+     */
+    private void replayStep(GameEngine replay, RoundRecord record, int step) {
+        int[] decisions = record.getPlayerDecisions();
+        if (step < decisions.length && !replay.isRoundOver()) {
+            gameExecutor.schedule(() -> guarded(() -> {
+                if (replaying != replay) {
+                    return; // riproduzione interrotta da un nuovo round
+                }
+                if (decisions[step] == 1) {
+                    player.playerHit();
+                } else {
+                    player.dealerTurn();
+                }
+                replayStep(replay, record, step + 1);
+            }), REPLAY_STEP_MILLIS, TimeUnit.MILLISECONDS);
+            return;
+        }
+        replaying = null;
+        if (replay.result() != record.getOutcome(0) && GameLog.isEnabled(Level.WARN)) {
+            GameLog.message(Level.WARN, "Replay diverged: recorded " + record.getOutcome(0) + ", replayed " + replay.result());
+        }
+    }
+
+    /**
+     * Accoda un comando sul thread della logica di gioco. I comandi vengono eseguiti uno alla volta,
+     * nell'ordine in cui sono stati inviati; gli errori vengono stampati senza fermare il thread.
+     *
+     * @param command Il comando da eseguire.
+     */
+    private void submit(Runnable command) {
+        submit(null, command);
+    }
+
+    /**
+     * Accoda un comando sul thread della logica di gioco e ne misura la latenza, dall'invio alla
+     * fine dell'esecuzione: comprende l'attesa in coda, come la percepisce chi ha cliccato.
+     *
+     * @param latency L'istogramma in cui registrare la latenza, oppure null per non misurarla.
+     * @param command Il comando da eseguire.
+     */
+    private void submit(Histogram latency, Runnable command) {
+        long submitted = System.nanoTime();
+        gameExecutor.execute(() -> {
+            guarded(command);
+            if (latency != null) {
+                latency.recordSince(submitted);
+            }
+        });
+    }
+
+    /**
+     * Esegue un comando stampando gli errori, così un errore non ferma il thread di gioco.
+     *
+     * @param command Il comando.
+     */
+    private static void guarded(Runnable command) {
+        try {
+            command.run();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+        }
     }
 
     /**
      * Metodo per ottenere l'immagine della carta nascosta del dealer.
      *
+     * @param state Lo stato del round da disegnare.
      * @param stayButtonEnabled Flag che indica se il pulsante "stay" è abilitato.
      * @return L'immagine della carta nascosta del dealer o la carta visibile del dealer.
      */
-    public Image getHiddenCardImage(boolean stayButtonEnabled) {
+    public Image getHiddenCardImage(GameState state, boolean stayButtonEnabled) {
         if (stayButtonEnabled) {
-            return new ImageIcon(getClass().getResource("Cards/BACK.png")).getImage();
+            return CardImageCache.getBack();
         } else {
-            return new ImageIcon(getClass().getResource(player.getHiddenCard().getImagePath())).getImage();
+            return CardImageCache.get(state.getDealerCards().get(0));
         }
     }
 
     /**
      * Metodo per ottenere il valore iniziale del dealer.
      *
+     * @param state Lo stato del round da disegnare.
      * @param stayButtonEnabled Flag che indica se il pulsante "stay" è abilitato.
      * @return Il valore iniziale del dealer (solo la prima carta visibile o la somma delle carte).
      */
-    public String getDealerInitialValue(boolean stayButtonEnabled) {
+    public String getDealerInitialValue(GameState state, boolean stayButtonEnabled) {
         if (stayButtonEnabled) {
-            return "Dealer: " + player.getDealer().getHand().get(1).getValue();
+            return "Dealer: " + state.getDealerUpcard().getValue();
         } else {
-            return "Dealer: " + player.getDealer().getSum();
+            return "Dealer: " + state.getDealerSum();
         }
     }
 
     /**
      * Metodo per ottenere le somme dei punteggi dei giocatori e del dealer.
      *
+     * @param state Lo stato del round da disegnare.
      * @return Una lista di stringhe con i punteggi dei giocatori e del dealer.
      */
-    public List<String> getPlayerSums() {
+    public List<String> getPlayerSums(GameState state) {
         List<String> playerSums = new ArrayList<>();
-        playerSums.add(GameMenu.playerName + ": " + player.getPlayer1().getSum());
-        playerSums.add("Dealer: " + player.getDealer().getSum());
+        playerSums.add(GameMenu.playerName + ": " + state.getPlayerSum());
+        playerSums.add("Dealer: " + state.getDealerSum());
         return playerSums;
     }
 
-    /**
-     * Metodo per ottenere il messaggio del vincitore.
-     *
-     * @return Il messaggio che indica il risultato del gioco (chi ha vinto).
-     */
-    
-
     /**
      * Metodo per ottenere i dati delle carte del dealer per il rendering grafico.
      *
+     * @param state Lo stato del round da disegnare.
      * @param stayButtonEnabled Flag che indica se il pulsante "stay" è abilitato.
      * @param startX Posizione iniziale X per il rendering delle carte.
      * @param startY Posizione iniziale Y per il rendering delle carte.
      * @return Una lista di oggetti CardImageData che contengono le informazioni per ogni carta del dealer.
      */
-    public List<CardImageData> getDealerCardsData(boolean stayButtonEnabled, int startX, int startY) {
+    public List<CardImageData> getDealerCardsData(GameState state, boolean stayButtonEnabled, int startX, int startY) {
         List<CardImageData> cardsData = new ArrayList<>();
-        Hand dealer = player.getDealer();
+        List<Card> dealer = state.getDealerCards();
         // Itera sulle carte del dealer, inizia da 1 per saltare la carta nascosta
-        for (int i = 1; i < dealer.getHand().size(); i++) {
-            Card card = dealer.getHand().get(i);
-            Image cardImage = new ImageIcon(getClass().getResource(card.getImagePath())).getImage();
+        for (int i = 1; i < dealer.size(); i++) {
+            Card card = dealer.get(i);
+            Image cardImage = CardImageCache.get(card);
             int x = startX + (120 - 80) * (i - 1);
             int y = startY;
             cardsData.add(new CardImageData(cardImage, x, y, 120, 170));
@@ -168,6 +299,39 @@ public class Controller {
         return cardsData;
     }
 
+    /**
+     * Metodo per ottenere i dati delle carte di un bot per il rendering grafico. Le carte dei bot
+     * sono disegnate a metà dimensione per far stare fino a sei bot in una riga.
+     *
+     * @param state Lo stato del round da disegnare.
+     * @param seat Indice del posto del bot, da 1.
+     * @param startX Posizione iniziale X per il rendering delle carte.
+     * @param startY Posizione iniziale Y per il rendering delle carte.
+     * @return Una lista di oggetti CardImageData che contengono le informazioni per ogni carta del bot.
+     */
+    public List<CardImageData> getBotCardsData(GameState state, int seat, int startX, int startY) {
+        List<CardImageData> cardsData = new ArrayList<>();
+        List<Card> cards = state.getSeatCards(seat);
+        for (int i = 0; i < cards.size(); i++) {
+            Image cardImage = CardImageCache.get(cards.get(i));
+            int x = startX + 20 * i;
+            cardsData.add(new CardImageData(cardImage, x, startY, 60, 85));
+        }
+        return cardsData;
+    }
+
+    /**
+     * Metodo per ottenere il punteggio di un bot, con l'esito a round concluso.
+     *
+     * @param state Lo stato del round da disegnare.
+     * @param seat Indice del posto del bot, da 1.
+     * @return Il punteggio del bot.
+     */
+    public String getBotSum(GameState state, int seat) {
+        String sum = "Bot " + seat + ": " + state.getSeatSum(seat);
+        return state.isRoundOver() ? sum + " " + state.getSeatOutcome(seat) : sum;
+    }
+
     /**
      * Metodo per ottenere i dati delle carte di un giocatore per il rendering grafico.
      *
@@ -178,16 +342,29 @@ public class Controller {
      * @return Una lista di oggetti CardImageData che contengono le informazioni per ogni carta del giocatore.
      */
     public List<CardImageData> getPlayerCardsData(Hand player, int startX, int startY, boolean hideFirst) {
+        return getPlayerCardsData(player.getHand(), startX, startY, hideFirst);
+    }
+
+    /**
+     * Metodo per ottenere i dati di una lista di carte per il rendering grafico.
+     *
+     * @param cards Carte di cui ottenere i dati, ad esempio quelle di uno stato del round.
+     * @param startX Posizione iniziale X per il rendering delle carte.
+     * @param startY Posizione iniziale Y per il rendering delle carte.
+     * @param hideFirst Flag che indica se la prima carta deve essere nascosta.
+     * @return Una lista di oggetti CardImageData che contengono le informazioni per ogni carta.
+     */
+    public List<CardImageData> getPlayerCardsData(List<Card> cards, int startX, int startY, boolean hideFirst) {
         List<CardImageData> cardsData = new ArrayList<>();
         // Itera sulle carte del giocatore
-        for (int i = 0; i < player.getHand().size(); i++) {
-            Card card = player.getHand().get(i);
+        for (int i = 0; i < cards.size(); i++) {
+            Card card = cards.get(i);
             Image cardImage;
             // Se hideFirst è true e siamo alla prima carta, uso l'immagine della carta nascosta
             if (hideFirst && i == 0) {
-                cardImage = new ImageIcon(getClass().getResource("Cards/BACK.png")).getImage();
+                cardImage = CardImageCache.getBack();
             } else {
-                cardImage = new ImageIcon(getClass().getResource(card.getImagePath())).getImage();
+                cardImage = CardImageCache.get(card);
             }
             int x = startX + (120 - 80) * i;
             int y = startY;
@@ -0,0 +1,240 @@
+package history;
+
+import model.Card;
+import model.HandRecorder;
+import model.Outcome;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Classe HandHistoryReader che legge un segmento dello storico delle mani scritto da
+ * {@link HandHistoryWriter}.
+ * <p>
+ * Il segmento viene mappato in memoria in sola lettura e percorso un record alla volta con
+ * {@link #next()}: il sistema operativo carica solo le pagine lette, quindi anche segmenti grandi
+ * si scorrono senza caricarli per intero e senza creare un oggetto per record.
+ */
+public class HandHistoryReader {
+
+    private static final String PREFIX = "hands-";
+    private static final String SUFFIX = ".bin";
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+
+    private long round;
+    private byte type;
+    private int seat;
+    private int value;
+    private int data;
+
+    /**
+     * Costruttore della classe HandHistoryReader.
+     *
+     * @param file Il segmento da leggere.
+     * @throws IOException se il file non è leggibile o non è un segmento dello storico.
+     */
+    public HandHistoryReader(File file) throws IOException {
+        this.file = file;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (buffer.remaining() < HandHistoryWriter.HEADER_SIZE
+                || buffer.getInt() != HandHistoryWriter.MAGIC
+                || buffer.getInt() != HandHistoryWriter.VERSION
+                || buffer.getInt() != HandHistoryWriter.RECORD_SIZE) {
+            throw new IOException("Not a hand history segment: " + file);
+        }
+        buffer.getInt(); // capacità del segmento
+    }
+
+    /**
+     * Passa al record successivo.
+     *
+     * @return true se è stato letto un record, false alla fine dei dati del segmento.
+     */
+    public boolean next() {
+        if (buffer.remaining() < HandHistoryWriter.RECORD_SIZE) {
+            return false;
+        }
+        int position = buffer.position();
+        if (buffer.get(position + 8) == 0) {
+            return false; // spazio del segmento non ancora scritto
+        }
+        round = buffer.getLong();
+        type = buffer.get();
+        seat = buffer.get();
+        value = buffer.get() & 0xFF;
+        buffer.get();
+        data = buffer.getInt();
+        return true;
+    }
+
+    /**
+     * Restituisce il round del record corrente.
+     *
+     * @return L'identificativo del round.
+     */
+    public long getRound() {
+        return round;
+    }
+
+    /**
+     * Restituisce il tipo del record corrente.
+     *
+     * @return Il tipo, una delle costanti di {@link HandHistoryWriter}.
+     */
+    public byte getType() {
+        return type;
+    }
+
+    /**
+     * Restituisce il posto del record corrente.
+     *
+     * @return Il posto, oppure {@link HandRecorder#DEALER} per le carte del dealer.
+     */
+    public int getSeat() {
+        return seat;
+    }
+
+    /**
+     * Restituisce il valore del record corrente: numero di mazzi, codice della carta,
+     * decisione o ordinale dell'esito, secondo il tipo.
+     *
+     * @return Il valore del record.
+     */
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Restituisce il campo dati del record corrente.
+     *
+     * @return Il campo dati; per l'inizio round i secondi dall'epoch.
+     */
+    public int getData() {
+        return data;
+    }
+
+    /**
+     * Restituisce il file letto.
+     *
+     * @return Il segmento.
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Descrive il record corrente in forma leggibile.
+     *
+     * @return Il record come testo.
+     */
+    @Override
+    public String toString() {
+        String who = seat == HandRecorder.DEALER ? "dealer" : "seat " + seat;
+        switch (type) {
+            case HandHistoryWriter.START:
+                return round + " START seats=" + seat + " decks=" + value + " time=" + Integer.toUnsignedLong(data);
+            case HandHistoryWriter.CARD:
+                return round + " CARD " + who + " " + Card.of(value);
+            case HandHistoryWriter.DECISION:
+                return round + " " + (value == 1 ? "HIT " : "STAND ") + who;
+            case HandHistoryWriter.OUTCOME:
+                return round + " OUTCOME " + who + " " + Outcome.values()[value];
+            default:
+                return round + " ? type=" + type;
+        }
+    }
+
+    /**
+     * Restituisce i segmenti presenti in una cartella, in ordine di scrittura.
+     *
+     * @param directory La cartella dello storico.
+     * @return I segmenti ordinati, vuota se la cartella non esiste.
+     */
+    public static List<File> segments(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(PREFIX) && name.endsWith(SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files); // i nomi hanno un indice a larghezza fissa
+        return new ArrayList<>(Arrays.asList(files));
+    }
+
+    /**
+     * Restituisce il file di un segmento.
+     *
+     * @param directory La cartella dello storico.
+     * @param index L'indice del segmento.
+     * @return Il file del segmento.
+     */
+    static File segmentFile(File directory, int index) {
+        return new File(directory, String.format("%s%08d%s", PREFIX, index, SUFFIX));
+    }
+
+    /**
+     * Restituisce l'indice di un segmento a partire dal nome del file.
+     *
+     * @param segment Il file del segmento.
+     * @return L'indice del segmento.
+     */
+    static int segmentIndex(File segment) {
+        String name = segment.getName();
+        return Integer.parseInt(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    /**
+     * Restituisce l'ultimo round registrato in un segmento.
+     *
+     * @param segment Il segmento.
+     * @return L'ultimo round, oppure -1 se il segmento è vuoto o non leggibile.
+     */
+    static long lastRound(File segment) {
+        long last = -1;
+        try {
+            HandHistoryReader reader = new HandHistoryReader(segment);
+            while (reader.next()) {
+                last = Math.max(last, reader.getRound());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        return last;
+    }
+
+    /**
+     * Stampa lo storico delle mani in forma leggibile.
+     *
+     * @param args Cartella dello storico oppure singoli segmenti; di default la cartella "history".
+     * @throws IOException se un segmento non è leggibile.
+     */
+    public static void main(String[] args) throws IOException {
+        List<File> files = new ArrayList<>();
+        if (args.length == 0) {
+            args = new String[] {HandHistoryWriter.DIRECTORY};
+        }
+        for (String arg : args) {
+            File file = new File(arg);
+            if (file.isDirectory()) {
+                files.addAll(segments(file));
+            } else {
+                files.add(file);
+            }
+        }
+        for (File file : files) {
+            System.out.println("# " + file);
+            HandHistoryReader reader = new HandHistoryReader(file);
+            while (reader.next()) {
+                System.out.println(reader);
+            }
+        }
+    }
+}
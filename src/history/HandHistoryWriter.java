@@ -0,0 +1,278 @@
+package history;
+
+import model.HandRecorder;
+import model.Outcome;
+import util.GameExecutors;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe HandHistoryWriter che registra lo storico delle mani in file binari di sola aggiunta.
+ * <p>
+ * Ogni evento di un round (inizio, carta, decisione, esito) diventa un record di
+ * {@value #RECORD_SIZE} byte scritto in un segmento mappato in memoria: una scrittura costa
+ * qualche store in memoria, senza chiamate di sistema né allocazioni. Quando un segmento è pieno
+ * si passa al successivo, e il segmento pieno viene forzato su disco da un thread in background,
+ * non dal thread che gioca.
+ * <p>
+ * Al primo round registrato dopo l'apertura lo storico riprende l'ultimo segmento della cartella,
+ * dopo l'ultimo record scritto, se ha ancora spazio per un round; altrimenti ne crea uno nuovo.
+ * Un round lasciato a metà da un arresto improvviso resta incompleto e viene scartato in lettura.
+ * Finché non si registra nulla non vengono creati né la cartella né segmenti.
+ * <p>
+ * Formato di un segmento: un'intestazione di {@value #HEADER_SIZE} byte ("BJHH", versione,
+ * dimensione del record, capacità in record) seguita dai record. Ogni record contiene il round
+ * (long), il tipo, il posto, il valore (byte) e un campo dati (int); un record con tipo 0 segna la
+ * fine dei dati. I file si leggono con {@link HandHistoryReader}.
+ */
+public class HandHistoryWriter implements HandRecorder, AutoCloseable {
+
+    /** Cartella predefinita dello storico delle mani. */
+    public static final String DIRECTORY = "history";
+    /** Record per segmento predefiniti, modificabili con -Dblackjack.historySegmentRecords. */
+    public static final int DEFAULT_SEGMENT_RECORDS = Integer.getInteger("blackjack.historySegmentRecords", 1 << 20);
+
+    /** Dimensione in byte di un record. */
+    public static final int RECORD_SIZE = 16;
+    /** Dimensione in byte dell'intestazione di un segmento. */
+    public static final int HEADER_SIZE = 16;
+
+    /** Record di inizio round: posto = numero di posti, valore = numero di mazzi, dati = secondi dall'epoch. */
+    public static final byte START = 1;
+    /** Record di una carta: posto che la riceve, valore = codice della carta. */
+    public static final byte CARD = 2;
+    /** Record di una decisione: valore = 1 per hit, 0 per stand. */
+    public static final byte DECISION = 3;
+    /** Record di un esito: valore = ordinale di {@link Outcome}. */
+    public static final byte OUTCOME = 4;
+
+    // Record lasciati liberi in fondo al segmento all'inizio di un round, così un round non
+    // viene diviso tra due segmenti
+    private static final int ROUND_RESERVE = 256;
+
+    static final int MAGIC = 0x424A4848; // "BJHH"
+    static final int VERSION = 1;
+
+    private static HandHistoryWriter instance;
+
+    private final File directory;
+    private final int segmentRecords;
+    private final ExecutorService syncer = Executors.newSingleThreadExecutor(GameExecutors.daemonThreads("history-sync"));
+    private File resume; // ultimo segmento esistente, da riprendere al primo round
+    private MappedByteBuffer segment;
+    private int segmentIndex;
+    private long nextRound;
+    private boolean closed;
+
+    /**
+     * Costruttore della classe HandHistoryWriter. Riprende la numerazione dei segmenti e dei
+     * round da quelli già presenti nella cartella; il segmento viene ripreso o creato al primo round.
+     *
+     * @param directory La cartella dei segmenti, creata al primo round se non esiste.
+     * @param segmentRecords Numero di record per segmento.
+     * @throws IOException se i segmenti esistenti non possono essere letti.
+     */
+    public HandHistoryWriter(File directory, int segmentRecords) throws IOException {
+        if (segmentRecords <= 0) {
+            throw new IllegalArgumentException("segmentRecords must be positive: " + segmentRecords);
+        }
+        this.directory = directory;
+        this.segmentRecords = segmentRecords;
+        List<File> segments = HandHistoryReader.segments(directory);
+        if (!segments.isEmpty()) {
+            resume = segments.get(segments.size() - 1);
+            segmentIndex = HandHistoryReader.segmentIndex(resume);
+        }
+        // i round continuano dall'ultimo registrato; un segmento aperto e mai usato è vuoto
+        for (int i = segments.size() - 1; i >= 0 && nextRound == 0; i--) {
+            nextRound = HandHistoryReader.lastRound(segments.get(i)) + 1;
+        }
+    }
+
+    /**
+     * Restituisce lo storico delle mani del gioco, aprendolo alla prima richiesta.
+     *
+     * @return Lo storico delle mani.
+     * @throws IllegalStateException se la cartella dello storico non può essere aperta.
+     */
+    public static synchronized HandHistoryWriter getDefault() {
+        if (instance == null) {
+            try {
+                instance = new HandHistoryWriter(new File(DIRECTORY), DEFAULT_SEGMENT_RECORDS);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open " + DIRECTORY, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Chiude lo storico del gioco, se è stato aperto, forzando su disco il segmento corrente.
+     */
+    public static synchronized void closeDefault() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    @Override
+    public synchronized long roundStarted(int numSeats, int numDecks) {
+        long round = nextRound++;
+        if (segment != null && segment.remaining() < Math.min(ROUND_RESERVE, segmentRecords / 2) * RECORD_SIZE) {
+            segment.position(segment.capacity()); // il round inizia nel segmento successivo
+        }
+        append(round, START, numSeats, numDecks, (int) (System.currentTimeMillis() / 1000));
+        return round;
+    }
+
+    @Override
+    public void cardDealt(long round, int seat, int card) {
+        append(round, CARD, seat, card, 0);
+    }
+
+    @Override
+    public void decision(long round, int seat, boolean hit) {
+        append(round, DECISION, seat, hit ? 1 : 0, 0);
+    }
+
+    @Override
+    public void outcome(long round, int seat, Outcome outcome) {
+        append(round, OUTCOME, seat, outcome.ordinal(), 0);
+    }
+
+    /**
+     * Forza su disco i record scritti nel segmento corrente.
+     */
+    public synchronized void flush() {
+        if (segment != null) {
+            segment.force();
+        }
+    }
+
+    /**
+     * Forza su disco il segmento corrente, attende i segmenti pieni ancora in scrittura e smette di
+     * registrare; gli eventi successivi vengono ignorati.
+     */
+    @Override
+    public synchronized void close() {
+        flush();
+        segment = null;
+        closed = true;
+        syncer.shutdown();
+        try {
+            if (!syncer.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("Hand history segments still being written to disk");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Restituisce l'indice del segmento corrente.
+     *
+     * @return L'indice del segmento.
+     */
+    public synchronized int getSegmentIndex() {
+        return segmentIndex;
+    }
+
+    /**
+     * Scrive un record, passando a un nuovo segmento se quello corrente è pieno.
+     *
+     * @param round Identificativo del round.
+     * @param type Tipo del record.
+     * @param seat Posto.
+     * @param value Valore.
+     * @param data Campo dati.
+     */
+    private synchronized void append(long round, byte type, int seat, int value, int data) {
+        if (closed) {
+            return;
+        }
+        if (segment == null || !segment.hasRemaining()) {
+            try {
+                if (segment != null) {
+                    MappedByteBuffer full = segment;
+                    segment = null;
+                    syncer.execute(full::force); // la mappatura viene rilasciata dopo la scrittura, quando non è più referenziata
+                }
+                if (resume == null || !reopen(resume)) {
+                    roll(); // il primo segmento viene creato solo quando c'è qualcosa da registrare
+                }
+                resume = null;
+            } catch (IOException e) {
+                e.printStackTrace();
+                segment = null;
+                closed = true; // si gioca comunque, senza storico
+                return;
+            }
+        }
+        // tipo, posto, valore, un byte libero e il campo dati in un solo long (big endian, come i campi letti)
+        segment.putLong(round).putLong((long) type << 56 | (seat & 0xFFL) << 48 | (value & 0xFFL) << 40 | (data & 0xFFFFFFFFL));
+    }
+
+    /**
+     * Riprende un segmento esistente dopo l'ultimo record scritto, se ha ancora spazio per un round.
+     *
+     * @param file Il segmento.
+     * @return true se il segmento è diventato quello corrente.
+     */
+    private boolean reopen(File file) {
+        MappedByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            if (channel.size() < HEADER_SIZE) {
+                return false;
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false; // si passa a un segmento nuovo
+        }
+        if (mapped.getInt() != MAGIC || mapped.getInt() != VERSION || mapped.getInt() != RECORD_SIZE) {
+            return false;
+        }
+        int capacity = mapped.getInt();
+        if (mapped.capacity() != HEADER_SIZE + (long) capacity * RECORD_SIZE) {
+            return false;
+        }
+        int end = HEADER_SIZE;
+        while (end < mapped.capacity() && mapped.get(end + 8) != 0) {
+            end += RECORD_SIZE; // il byte del tipo è 0 solo nello spazio non ancora scritto
+        }
+        if (mapped.capacity() - end < Math.min(ROUND_RESERVE, capacity / 2) * RECORD_SIZE) {
+            return false;
+        }
+        mapped.position(end);
+        segment = mapped;
+        return true;
+    }
+
+    /**
+     * Crea e mappa in memoria il segmento successivo, scrivendone l'intestazione.
+     *
+     * @throws IOException se la cartella o il segmento non possono essere creati.
+     */
+    private void roll() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create " + directory);
+        }
+        segmentIndex++;
+        File file = HandHistoryReader.segmentFile(directory, segmentIndex);
+        long size = HEADER_SIZE + (long) segmentRecords * RECORD_SIZE;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            segment = channel.map(FileChannel.MapMode.READ_WRITE, 0, size); // la mappatura resta valida dopo la chiusura
+        }
+        segment.putInt(MAGIC).putInt(VERSION).putInt(RECORD_SIZE).putInt(segmentRecords);
+    }
+}
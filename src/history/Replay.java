@@ -0,0 +1,340 @@
+package history;
+
+import model.Deck;
+import model.GameEngine;
+import model.HandRecorder;
+import model.Outcome;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Classe Replay che rigioca i round registrati nello storico delle mani.
+ * <p>
+ * Ogni round viene ricostruito con uno shoe che distribuisce le carte nell'ordine registrato
+ * ({@link Deck#Deck(int, int[])}); le decisioni del giocatore vengono ripetute sul motore di
+ * gioco e quelle dei bot vengono prese dallo storico. La verifica confronta gli eventi prodotti
+ * dal motore con quelli registrati e segnala il primo punto in cui divergono. I file vengono
+ * verificati in parallelo, uno per thread, senza interfaccia grafica.
+ */
+public class Replay {
+
+    private static final int MAX_REPORTED = 10; // divergenze stampate per file
+
+    private Replay() { }
+
+    /**
+     * Legge i round completi di un segmento. I round di tavoli diversi possono essere
+     * intercalati; i round senza tutti gli esiti (abbandonati o troncati) vengono scartati.
+     *
+     * @param segment Il segmento dello storico.
+     * @return I round completi, nell'ordine in cui si sono conclusi.
+     * @throws IOException se il segmento non è leggibile.
+     */
+    public static List<RoundRecord> read(File segment) throws IOException {
+        HandHistoryReader reader = new HandHistoryReader(segment);
+        Map<Long, Pending> pending = new LinkedHashMap<>();
+        List<RoundRecord> rounds = new ArrayList<>();
+        while (reader.next()) {
+            long round = reader.getRound();
+            if (reader.getType() == HandHistoryWriter.START) {
+                pending.put(round, new Pending(round, reader.getSeat(), reader.getValue(), Integer.toUnsignedLong(reader.getData())));
+                continue;
+            }
+            Pending current = pending.get(round);
+            if (current == null) {
+                continue; // round iniziato in un segmento precedente
+            }
+            current.add(RoundRecord.event(reader.getType(), reader.getSeat(), reader.getValue()));
+            if (reader.getType() == HandHistoryWriter.OUTCOME && ++current.outcomes == current.numSeats) {
+                pending.remove(round);
+                rounds.add(current.toRecord());
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * Cerca un round in un segmento.
+     *
+     * @param segment Il segmento dello storico.
+     * @param round Identificativo del round.
+     * @return Il round, oppure null se non è presente o non è completo.
+     * @throws IOException se il segmento non è leggibile.
+     */
+    public static RoundRecord find(File segment, long round) throws IOException {
+        for (RoundRecord record : read(segment)) {
+            if (record.getRound() == round) {
+                return record;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Crea un motore di gioco pronto a rigiocare un round: lo shoe contiene le carte registrate
+     * e i bot ripetono le decisioni registrate. Il round va avviato con {@link GameEngine#startRound()}.
+     *
+     * @param record Il round da rigiocare.
+     * @return Il motore di gioco.
+     */
+    public static GameEngine engineFor(RoundRecord record) {
+        int[] botDecisions = record.getBotDecisions();
+        int[] next = new int[1];
+        return new GameEngine(new Deck(record.getNumDecks(), record.getCards()), record.getNumSeats(),
+                (hand, upcard) -> next[0] < botDecisions.length && botDecisions[next[0]++] == 1);
+    }
+
+    /**
+     * Rigioca un round senza interfaccia e lo confronta con quello registrato.
+     *
+     * @param record Il round registrato.
+     * @return null se il round rigiocato coincide, altrimenti la descrizione della prima divergenza.
+     */
+    public static String verify(RoundRecord record) {
+        GameEngine engine = engineFor(record);
+        Capture capture = new Capture();
+        engine.setRecorder(capture);
+        try {
+            engine.startRound();
+            for (int decision : record.getPlayerDecisions()) {
+                if (engine.isRoundOver()) {
+                    break; // la differenza emerge dal confronto degli eventi
+                }
+                if (decision == 1) {
+                    engine.hit();
+                } else {
+                    engine.stand();
+                }
+            }
+        } catch (IllegalStateException e) {
+            return "round " + record.getRound() + ": " + e.getMessage();
+        }
+
+        int[] expected = record.getEvents();
+        int[] actual = Arrays.copyOf(capture.events, capture.size);
+        int mismatch = Arrays.mismatch(expected, actual);
+        if (mismatch < 0) {
+            return null;
+        }
+        return "round " + record.getRound() + ", event " + mismatch + ": recorded "
+                + (mismatch < expected.length ? RoundRecord.describe(expected[mismatch]) : "end of round")
+                + ", replayed " + (mismatch < actual.length ? RoundRecord.describe(actual[mismatch]) : "end of round");
+    }
+
+    /**
+     * Verifica tutti i round di un segmento.
+     *
+     * @param segment Il segmento dello storico.
+     * @return Il resoconto della verifica.
+     */
+    public static Report verify(File segment) {
+        Report report = new Report(segment);
+        try {
+            for (RoundRecord record : read(segment)) {
+                report.rounds++;
+                String divergence = verify(record);
+                if (divergence != null) {
+                    report.divergences.add(divergence);
+                }
+            }
+        } catch (IOException e) {
+            report.divergences.add("unreadable: " + e.getMessage());
+        }
+        return report;
+    }
+
+    /**
+     * Verifica più segmenti in parallelo.
+     *
+     * @param segments I segmenti dello storico.
+     * @param threads Numero di thread.
+     * @return I resoconti, nello stesso ordine dei segmenti.
+     * @throws InterruptedException se il thread viene interrotto durante l'attesa dei risultati.
+     */
+    public static List<Report> verifyAll(List<File> segments, int threads) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Report>> futures = new ArrayList<>();
+            for (File segment : segments) {
+                futures.add(executor.submit(() -> verify(segment)));
+            }
+            List<Report> reports = new ArrayList<>();
+            for (Future<Report> future : futures) {
+                reports.add(future.get());
+            }
+            return reports;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Replay failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Verifica lo storico delle mani da riga di comando. Termina con codice 1 se almeno un
+     * round diverge.
+     *
+     * @param args Cartelle dello storico oppure singoli segmenti; di default la cartella "history".
+     * @throws InterruptedException se la verifica viene interrotta.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        List<File> segments = new ArrayList<>();
+        if (args.length == 0) {
+            args = new String[] {HandHistoryWriter.DIRECTORY};
+        }
+        for (String arg : args) {
+            File file = new File(arg);
+            if (file.isDirectory()) {
+                segments.addAll(HandHistoryReader.segments(file));
+            } else {
+                segments.add(file);
+            }
+        }
+
+        long start = System.nanoTime();
+        List<Report> reports = verifyAll(segments, Runtime.getRuntime().availableProcessors());
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long rounds = 0;
+        long divergent = 0;
+        for (Report report : reports) {
+            System.out.println(report);
+            rounds += report.rounds;
+            divergent += report.divergences.size();
+        }
+        System.out.printf("%d segments, %d rounds, %d divergent, %.0f rounds/s%n",
+                segments.size(), rounds, divergent, rounds / Math.max(seconds, 1e-9));
+        if (divergent > 0) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Resoconto della verifica di un segmento.
+     */
+    public static class Report {
+
+        private final File segment;
+        private final List<String> divergences = new ArrayList<>();
+        private int rounds;
+
+        Report(File segment) {
+            this.segment = segment;
+        }
+
+        /**
+         * Restituisce il segmento verificato.
+         *
+         * @return Il segmento.
+         */
+        public File getSegment() {
+            return segment;
+        }
+
+        /**
+         * Restituisce il numero di round verificati.
+         *
+         * @return I round verificati.
+         */
+        public int getRounds() {
+            return rounds;
+        }
+
+        /**
+         * Restituisce le divergenze trovate.
+         *
+         * @return Una descrizione per ogni round che diverge.
+         */
+        public List<String> getDivergences() {
+            return divergences;
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder(segment.getName()).append(": ").append(rounds).append(" rounds, ")
+                    .append(divergences.size()).append(" divergent");
+            for (int i = 0; i < Math.min(MAX_REPORTED, divergences.size()); i++) {
+                sb.append("\n  ").append(divergences.get(i));
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * Round in lettura, di cui non sono ancora arrivati tutti gli esiti.
+     */
+    private static class Pending {
+
+        private final long round;
+        private final int numSeats;
+        private final int numDecks;
+        private final long startTime;
+        private int[] events = new int[32];
+        private int size;
+        private int outcomes;
+
+        Pending(long round, int numSeats, int numDecks, long startTime) {
+            this.round = round;
+            this.numSeats = numSeats;
+            this.numDecks = numDecks;
+            this.startTime = startTime;
+        }
+
+        void add(int event) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size * 2);
+            }
+            events[size++] = event;
+        }
+
+        RoundRecord toRecord() {
+            return new RoundRecord(round, numSeats, numDecks, startTime, Arrays.copyOf(events, size));
+        }
+    }
+
+    /**
+     * Registratore che raccoglie in memoria gli eventi del round rigiocato.
+     */
+    private static class Capture implements HandRecorder {
+
+        private int[] events = new int[32];
+        private int size;
+
+        @Override
+        public long roundStarted(int numSeats, int numDecks) {
+            return 0;
+        }
+
+        @Override
+        public void cardDealt(long round, int seat, int card) {
+            add(RoundRecord.event(HandHistoryWriter.CARD, seat, card));
+        }
+
+        @Override
+        public void decision(long round, int seat, boolean hit) {
+            add(RoundRecord.event(HandHistoryWriter.DECISION, seat, hit ? 1 : 0));
+        }
+
+        @Override
+        public void outcome(long round, int seat, Outcome outcome) {
+            add(RoundRecord.event(HandHistoryWriter.OUTCOME, seat, outcome.ordinal()));
+        }
+
+        private void add(int event) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size * 2);
+            }
+            events[size++] = event;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package history;
+
+import model.Card;
+import model.HandRecorder;
+import model.Outcome;
+
+import java.util.Arrays;
+
+/**
+ * Classe RoundRecord che rappresenta un round completo letto dallo storico delle mani: le
+ * impostazioni del tavolo e gli eventi del round (carte, decisioni, esiti) nell'ordine in cui
+ * sono avvenuti.
+ * <p>
+ * Ogni evento è un int che contiene tipo, posto e valore del record, quindi due round si
+ * confrontano confrontando due array di int.
+ */
+public final class RoundRecord {
+
+    private final long round;
+    private final int numSeats;
+    private final int numDecks;
+    private final long startTime;
+    private final int[] events;
+
+    /**
+     * Costruttore della classe RoundRecord.
+     *
+     * @param round Identificativo del round.
+     * @param numSeats Numero di posti al tavolo.
+     * @param numDecks Numero di mazzi dello shoe.
+     * @param startTime Inizio del round, in secondi dall'epoch.
+     * @param events Gli eventi del round, creati con {@link #event(byte, int, int)}.
+     */
+    RoundRecord(long round, int numSeats, int numDecks, long startTime, int[] events) {
+        this.round = round;
+        this.numSeats = numSeats;
+        this.numDecks = numDecks;
+        this.startTime = startTime;
+        this.events = events;
+    }
+
+    /**
+     * Compone un evento.
+     *
+     * @param type Tipo del record (vedi {@link HandHistoryWriter}).
+     * @param seat Posto, oppure {@link HandRecorder#DEALER}.
+     * @param value Valore del record.
+     * @return L'evento.
+     */
+    static int event(byte type, int seat, int value) {
+        return type << 16 | (seat & 0xFF) << 8 | (value & 0xFF);
+    }
+
+    /**
+     * Restituisce il tipo di un evento.
+     *
+     * @param event L'evento.
+     * @return Il tipo del record.
+     */
+    static byte typeOf(int event) {
+        return (byte) (event >>> 16);
+    }
+
+    /**
+     * Restituisce il posto di un evento.
+     *
+     * @param event L'evento.
+     * @return Il posto, oppure {@link HandRecorder#DEALER}.
+     */
+    static int seatOf(int event) {
+        return (byte) (event >>> 8);
+    }
+
+    /**
+     * Restituisce il valore di un evento.
+     *
+     * @param event L'evento.
+     * @return Il valore del record.
+     */
+    static int valueOf(int event) {
+        return event & 0xFF;
+    }
+
+    /**
+     * Descrive un evento in forma leggibile.
+     *
+     * @param event L'evento.
+     * @return L'evento come testo.
+     */
+    static String describe(int event) {
+        int seat = seatOf(event);
+        String who = seat == HandRecorder.DEALER ? "dealer" : "seat " + seat;
+        switch (typeOf(event)) {
+            case HandHistoryWriter.CARD:
+                return "CARD " + who + " " + Card.of(valueOf(event));
+            case HandHistoryWriter.DECISION:
+                return (valueOf(event) == 1 ? "HIT " : "STAND ") + who;
+            case HandHistoryWriter.OUTCOME:
+                return "OUTCOME " + who + " " + Outcome.values()[valueOf(event)];
+            default:
+                return "? " + event;
+        }
+    }
+
+    /**
+     * Restituisce le carte del round nell'ordine in cui sono uscite dallo shoe.
+     *
+     * @return I codici delle carte.
+     */
+    public int[] getCards() {
+        return select(HandHistoryWriter.CARD, false);
+    }
+
+    /**
+     * Restituisce le decisioni del giocatore umano (posto 0), in ordine.
+     *
+     * @return 1 per hit, 0 per stand.
+     */
+    public int[] getPlayerDecisions() {
+        return select(HandHistoryWriter.DECISION, true);
+    }
+
+    /**
+     * Restituisce le decisioni dei bot nell'ordine in cui sono state prese.
+     *
+     * @return 1 per hit, 0 per stand.
+     */
+    public int[] getBotDecisions() {
+        int[] selected = new int[events.length];
+        int n = 0;
+        for (int event : events) {
+            if (typeOf(event) == HandHistoryWriter.DECISION && seatOf(event) > 0) {
+                selected[n++] = valueOf(event);
+            }
+        }
+        return Arrays.copyOf(selected, n);
+    }
+
+    /**
+     * Restituisce l'esito registrato di un posto.
+     *
+     * @param seat Indice del posto.
+     * @return L'esito del posto.
+     */
+    public Outcome getOutcome(int seat) {
+        for (int event : events) {
+            if (typeOf(event) == HandHistoryWriter.OUTCOME && seatOf(event) == seat) {
+                return Outcome.values()[valueOf(event)];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Restituisce i valori degli eventi di un tipo.
+     *
+     * @param type Tipo del record.
+     * @param playerOnly Se considerare solo il posto 0.
+     * @return I valori, in ordine.
+     */
+    private int[] select(byte type, boolean playerOnly) {
+        int[] selected = new int[events.length];
+        int n = 0;
+        for (int event : events) {
+            if (typeOf(event) == type && (!playerOnly || seatOf(event) == 0)) {
+                selected[n++] = valueOf(event);
+            }
+        }
+        return Arrays.copyOf(selected, n);
+    }
+
+    /**
+     * Restituisce gli eventi del round.
+     *
+     * @return Una copia degli eventi.
+     */
+    int[] getEvents() {
+        return events.clone();
+    }
+
+    /**
+     * Restituisce l'identificativo del round.
+     *
+     * @return L'identificativo del round.
+     */
+    public long getRound() {
+        return round;
+    }
+
+    /**
+     * Restituisce il numero di posti al tavolo.
+     *
+     * @return Il numero di posti.
+     */
+    public int getNumSeats() {
+        return numSeats;
+    }
+
+    /**
+     * Restituisce il numero di mazzi dello shoe.
+     *
+     * @return Il numero di mazzi.
+     */
+    public int getNumDecks() {
+        return numDecks;
+    }
+
+    /**
+     * Restituisce l'inizio del round.
+     *
+     * @return I secondi dall'epoch.
+     */
+    public long getStartTime() {
+        return startTime;
+    }
+}
@@ -0,0 +1,127 @@
+package log;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Buffer circolare di eventi a capacità fissa, con più produttori e un solo consumatore.
+ * <p>
+ * I campi degli eventi sono array di primitivi allocati una volta sola. Un produttore prenota
+ * una posizione con un CAS sulla coda, scrive i campi e pubblica la posizione aggiornando il suo
+ * numero di sequenza; il consumatore legge solo le posizioni pubblicate. Nessun lock e nessuna
+ * allocazione: se il buffer è pieno l'evento viene scartato invece di attendere.
+ */
+final class EventRing {
+
+    static final int MAX_CARDS = 20; // 10 carte da 6 bit per ogni long
+
+    final long[] times;
+    final byte[] levels;
+    final byte[] events;
+    final byte[] seats;
+    final byte[] sums;
+    final byte[] counts;
+    final long[] cardsLow;
+    final long[] cardsHigh;
+    final long[] values;
+    final String[] messages;
+
+    private final int mask;
+    private final AtomicLongArray sequences;  // posizione attesa in ogni slot: pos se libero, pos + 1 se pubblicato
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private long head; // usato solo dal consumatore
+
+    /**
+     * Costruttore della classe EventRing.
+     *
+     * @param capacity Numero di eventi, arrotondato alla potenza di 2 successiva.
+     */
+    EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+        this.times = new long[size];
+        this.levels = new byte[size];
+        this.events = new byte[size];
+        this.seats = new byte[size];
+        this.sums = new byte[size];
+        this.counts = new byte[size];
+        this.cardsLow = new long[size];
+        this.cardsHigh = new long[size];
+        this.values = new long[size];
+        this.messages = new String[size];
+    }
+
+    /**
+     * Prenota uno slot per un nuovo evento.
+     *
+     * @return La posizione prenotata, oppure -1 se il buffer è pieno.
+     */
+    long claim() {
+        while (true) {
+            long pos = tail.get();
+            long sequence = sequences.get((int) pos & mask);
+            if (sequence == pos) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    return pos;
+                }
+            } else if (sequence < pos) {
+                dropped.incrementAndGet(); // il consumatore non ha ancora liberato lo slot
+                return -1;
+            }
+            // altrimenti un altro produttore ha appena preso la posizione: si riprova
+        }
+    }
+
+    /**
+     * Restituisce l'indice nell'array dei campi di una posizione.
+     *
+     * @param pos La posizione.
+     * @return L'indice.
+     */
+    int slot(long pos) {
+        return (int) pos & mask;
+    }
+
+    /**
+     * Pubblica un evento, rendendolo visibile al consumatore.
+     *
+     * @param pos La posizione restituita da {@link #claim()}.
+     */
+    void publish(long pos) {
+        sequences.set((int) pos & mask, pos + 1);
+    }
+
+    /**
+     * Restituisce lo slot del prossimo evento da consumare.
+     *
+     * @return L'indice dello slot, oppure -1 se non ci sono eventi pubblicati.
+     */
+    int peek() {
+        int slot = (int) head & mask;
+        return sequences.get(slot) == head + 1 ? slot : -1;
+    }
+
+    /**
+     * Libera lo slot consumato, che torna disponibile ai produttori.
+     */
+    void release() {
+        int slot = (int) head & mask;
+        messages[slot] = null;
+        sequences.set(slot, head + mask + 1);
+        head++;
+    }
+
+    /**
+     * Restituisce e azzera il numero di eventi scartati perché il buffer era pieno.
+     *
+     * @return Gli eventi scartati dall'ultima chiamata.
+     */
+    long takeDropped() {
+        return dropped.getAndSet(0);
+    }
+}
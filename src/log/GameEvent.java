@@ -0,0 +1,32 @@
+package log;
+
+/**
+ * Tipi di evento registrati da {@link GameLog}. Gli eventi di una mano portano il posto, le carte
+ * e il punteggio; gli altri un valore numerico o un messaggio.
+ */
+public enum GameEvent {
+    DEAL("deal"),                 // mano iniziale di un posto o del dealer
+    HIT("hit"),                   // mano del giocatore dopo una carta
+    DEALER_TURN("dealerTurn"),    // mano del dealer a fine turno
+    START_ACTION("startAction"),  // clic su "start"
+    HIT_ACTION("hitAction"),      // clic su "hit"
+    STAY_ACTION("stayAction"),    // clic su "stay", o passaggio automatico al dealer
+    RETRY_ACTION("retryAction"),  // clic su "retry"
+    REPLAY("replay"),             // inizio di un round rigiocato; il valore è il numero del round
+    MESSAGE("message");           // testo libero, per gli eventi rari
+
+    private final String label;
+
+    GameEvent(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Restituisce il nome dell'evento nel file di log.
+     *
+     * @return Il nome.
+     */
+    public String getLabel() {
+        return label;
+    }
+}
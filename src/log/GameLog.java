@@ -0,0 +1,378 @@
+package log;
+
+import model.Card;
+import model.Hand;
+import model.HandRecorder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Classe GameLog che registra gli eventi di gioco in un file, senza rallentare il thread che li genera.
+ * <p>
+ * Un evento è un insieme di campi primitivi (livello, tipo, posto, punteggio, codici delle carte)
+ * copiati in un {@link EventRing}; nessuna stringa viene composta sul thread del chiamante. Un
+ * thread in background svuota il buffer, formatta le righe e le scrive in un file che ruota oltre
+ * una dimensione massima. Quando il buffer è vuoto il thread resta fermo finché un evento non lo
+ * risveglia, quindi un gioco inattivo non costa nulla. Gli eventi sotto il livello minimo vengono scartati con pochi
+ * confronti su costanti, prima di leggere qualsiasi argomento.
+ * <p>
+ * Configurazione: -Dblackjack.logLevel (DEBUG, INFO, WARN, OFF; predefinito INFO),
+ * -Dblackjack.logFile (predefinito game.log), -Dblackjack.logMaxBytes (predefinito 1 MB) e
+ * -Dblackjack.logBuffer (eventi nel buffer, predefinito 8192).
+ */
+public final class GameLog {
+
+    /** Livello minimo registrato. */
+    public static final Level LEVEL = parseLevel(System.getProperty("blackjack.logLevel", "INFO"));
+    /** File di log corrente. */
+    public static final String FILE_PATH = System.getProperty("blackjack.logFile", "game.log");
+
+    private static final long MAX_BYTES = Long.getLong("blackjack.logMaxBytes", 1 << 20);
+    private static final int BACKUPS = 3; // game.log.1 ... game.log.3
+    private static final DateTimeFormatter TIME =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+    private static final GameEvent[] EVENTS = GameEvent.values();
+    private static final Level[] LEVELS = Level.values();
+
+    private static final int THRESHOLD = LEVEL.ordinal();
+    private static final EventRing RING = THRESHOLD < Level.OFF.ordinal()
+            ? new EventRing(Integer.getInteger("blackjack.logBuffer", 8192)) : null;
+    private static final Thread DRAINER;
+
+    private static volatile boolean running = true;
+    private static volatile boolean sleeping; // il thread di scrittura è fermo, o sta per fermarsi, sul buffer vuoto
+
+    static {
+        if (RING != null) {
+            DRAINER = new Thread(GameLog::drain, "game-log");
+            DRAINER.setDaemon(true);
+            DRAINER.start();
+        } else {
+            DRAINER = null;
+        }
+    }
+
+    private GameLog() { }
+
+    /**
+     * Verifica se un livello viene registrato. Serve a chi deve comporre un messaggio prima di
+     * chiamare {@link #message(Level, String)}. OFF è solo una soglia: un evento di livello OFF
+     * non viene mai registrato.
+     *
+     * @param level Il livello.
+     * @return true se gli eventi di quel livello vengono registrati.
+     */
+    public static boolean isEnabled(Level level) {
+        return level != Level.OFF && level.ordinal() >= THRESHOLD && RING != null;
+    }
+
+    /**
+     * Registra un evento con le carte e il punteggio di una mano.
+     *
+     * @param level Il livello.
+     * @param event Il tipo di evento.
+     * @param seat Il posto della mano, {@link HandRecorder#DEALER} per il dealer.
+     * @param hand La mano; le carte vengono copiate come codici.
+     */
+    public static void hand(Level level, GameEvent event, int seat, Hand hand) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        long pos = RING.claim();
+        if (pos < 0) {
+            return;
+        }
+        int slot = RING.slot(pos);
+        List<Card> cards = hand.getHand();
+        int count = Math.min(cards.size(), EventRing.MAX_CARDS);
+        long low = 0;
+        long high = 0;
+        for (int i = 0; i < count; i++) {
+            long code = cards.get(i).getCode();
+            if (i < 10) {
+                low |= code << (6 * i);
+            } else {
+                high |= code << (6 * (i - 10));
+            }
+        }
+        fill(slot, level, event, seat);
+        RING.sums[slot] = (byte) hand.getSum();
+        RING.counts[slot] = (byte) count;
+        RING.cardsLow[slot] = low;
+        RING.cardsHigh[slot] = high;
+        publish(pos);
+    }
+
+    /**
+     * Registra un evento senza dati.
+     *
+     * @param level Il livello.
+     * @param event Il tipo di evento.
+     */
+    public static void event(Level level, GameEvent event) {
+        value(level, event, 0);
+    }
+
+    /**
+     * Registra un evento con un valore numerico.
+     *
+     * @param level Il livello.
+     * @param event Il tipo di evento.
+     * @param value Il valore.
+     */
+    public static void value(Level level, GameEvent event, long value) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        long pos = RING.claim();
+        if (pos < 0) {
+            return;
+        }
+        int slot = RING.slot(pos);
+        fill(slot, level, event, 0);
+        RING.counts[slot] = -1; // nessuna mano
+        RING.values[slot] = value;
+        publish(pos);
+    }
+
+    /**
+     * Registra un messaggio di testo. Va usato solo per eventi rari: il messaggio è già composto
+     * quando arriva qui, quindi chi chiama dovrebbe prima verificare {@link #isEnabled(Level)}.
+     *
+     * @param level Il livello.
+     * @param message Il messaggio.
+     */
+    public static void message(Level level, String message) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        long pos = RING.claim();
+        if (pos < 0) {
+            return;
+        }
+        int slot = RING.slot(pos);
+        fill(slot, level, GameEvent.MESSAGE, 0);
+        RING.counts[slot] = -1;
+        RING.messages[slot] = message;
+        publish(pos);
+    }
+
+    /**
+     * Ferma il thread di scrittura dopo aver scritto gli eventi ancora nel buffer.
+     */
+    public static void close() {
+        if (DRAINER == null || !running) {
+            return;
+        }
+        running = false;
+        LockSupport.unpark(DRAINER);
+        try {
+            DRAINER.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Pubblica un evento e risveglia il thread di scrittura se è fermo sul buffer vuoto.
+     *
+     * @param pos La posizione dell'evento.
+     */
+    private static void publish(long pos) {
+        RING.publish(pos);
+        if (sleeping) {
+            LockSupport.unpark(DRAINER);
+        }
+    }
+
+    /**
+     * Legge il livello minimo dalla configurazione; un valore non valido lascia il livello INFO.
+     *
+     * @param name Il nome del livello.
+     * @return Il livello.
+     */
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            e.printStackTrace();
+            return Level.INFO;
+        }
+    }
+
+    /**
+     * Scrive i campi comuni a tutti gli eventi.
+     *
+     * @param slot Lo slot dell'evento.
+     * @param level Il livello.
+     * @param event Il tipo di evento.
+     * @param seat Il posto.
+     */
+    private static void fill(int slot, Level level, GameEvent event, int seat) {
+        RING.times[slot] = System.currentTimeMillis();
+        RING.levels[slot] = (byte) level.ordinal();
+        RING.events[slot] = (byte) event.ordinal();
+        RING.seats[slot] = (byte) seat;
+    }
+
+    /**
+     * Ciclo del thread di scrittura: svuota il buffer, scrive le righe e si ferma quando non ci
+     * sono eventi. Il file viene svuotato sul disco ogni volta che il buffer è vuoto.
+     * <p>
+     * Prima di fermarsi il thread segnala {@code sleeping} e poi controlla di nuovo il buffer; un
+     * produttore pubblica l'evento e poi legge {@code sleeping}. Entrambi sono accessi volatili,
+     * quindi almeno uno dei due vede l'altro: o il thread trova l'evento, o il produttore lo risveglia.
+     */
+    private static void drain() {
+        File file = new File(FILE_PATH);
+        StringBuilder line = new StringBuilder(128);
+        Writer writer = null;
+        long written = file.length();
+        try {
+            writer = open(file);
+            while (true) {
+                boolean stopping = !running; // letto prima di svuotare, così nessun evento resta indietro
+                int slot;
+                boolean wrote = false;
+                while ((slot = RING.peek()) >= 0) {
+                    line.setLength(0);
+                    format(slot, line);
+                    RING.release();
+                    written += write(writer, line);
+                    wrote = true;
+                    if (written >= MAX_BYTES) {
+                        writer.close();
+                        roll(file);
+                        writer = open(file);
+                        written = 0;
+                    }
+                }
+                long dropped = RING.takeDropped();
+                if (dropped > 0) {
+                    line.setLength(0);
+                    line.append(TIME.format(Instant.now())).append(" WARN  dropped ").append(dropped).append(" events\n");
+                    written += write(writer, line);
+                    wrote = true;
+                }
+                if (wrote) {
+                    writer.flush();
+                }
+                if (stopping) {
+                    break;
+                }
+                sleeping = true;
+                if (RING.peek() < 0 && running) {
+                    LockSupport.park();
+                }
+                sleeping = false;
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            if (writer != null) {
+                try {
+                    writer.close();
+                } catch (IOException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    /**
+     * Compone la riga di un evento.
+     *
+     * @param slot Lo slot dell'evento.
+     * @param line Il buffer della riga.
+     */
+    private static void format(int slot, StringBuilder line) {
+        Level level = LEVELS[RING.levels[slot]];
+        GameEvent event = EVENTS[RING.events[slot]];
+        line.append(TIME.format(Instant.ofEpochMilli(RING.times[slot]))).append(' ').append(level);
+        for (int i = level.name().length(); i < 6; i++) {
+            line.append(' ');
+        }
+        line.append(event.getLabel());
+        int count = RING.counts[slot];
+        if (count >= 0) {
+            int seat = RING.seats[slot];
+            line.append(" seat=");
+            if (seat == HandRecorder.DEALER) {
+                line.append("dealer");
+            } else {
+                line.append(seat);
+            }
+            line.append(" sum=").append(RING.sums[slot]).append(" cards=");
+            for (int i = 0; i < count; i++) {
+                long packed = i < 10 ? RING.cardsLow[slot] >>> (6 * i) : RING.cardsHigh[slot] >>> (6 * (i - 10));
+                if (i > 0) {
+                    line.append(',');
+                }
+                line.append(Card.of((int) (packed & 0x3F)));
+            }
+        } else if (event == GameEvent.MESSAGE) {
+            line.append(' ').append(RING.messages[slot]);
+        } else if (event == GameEvent.REPLAY) {
+            line.append(" round=").append(RING.values[slot]);
+        }
+        line.append('\n');
+    }
+
+    /**
+     * Scrive una riga.
+     *
+     * @param writer Il file.
+     * @param line La riga.
+     * @return Il numero di byte scritti, stimato sui caratteri (le righe sono ASCII).
+     * @throws IOException se la scrittura fallisce.
+     */
+    private static int write(Writer writer, StringBuilder line) throws IOException {
+        writer.append(line);
+        return line.length();
+    }
+
+    /**
+     * Apre il file di log in aggiunta.
+     *
+     * @param file Il file.
+     * @return Il writer, con buffer.
+     * @throws IOException se il file non può essere aperto.
+     */
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file, true), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Fa ruotare i file: game.log diventa game.log.1, game.log.1 diventa game.log.2 e così via;
+     * il più vecchio viene eliminato.
+     *
+     * @param file Il file di log corrente.
+     */
+    private static void roll(File file) {
+        File oldest = new File(file.getPath() + "." + BACKUPS);
+        if (oldest.exists() && !oldest.delete()) {
+            System.err.println("Cannot delete " + oldest);
+        }
+        for (int i = BACKUPS - 1; i >= 1; i--) {
+            File from = new File(file.getPath() + "." + i);
+            if (from.exists() && !from.renameTo(new File(file.getPath() + "." + (i + 1)))) {
+                System.err.println("Cannot rename " + from);
+            }
+        }
+        if (!file.renameTo(new File(file.getPath() + ".1"))) {
+            System.err.println("Cannot rename " + file);
+        }
+    }
+}
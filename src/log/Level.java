@@ -0,0 +1,12 @@
+package log;
+
+/**
+ * Livelli degli eventi di {@link GameLog}, dal più dettagliato al più grave.
+ * Il livello minimo registrato si sceglie con -Dblackjack.logLevel; OFF disattiva il log.
+ */
+public enum Level {
+    DEBUG, // ogni azione dell'interfaccia
+    INFO,  // carte e punteggi delle mani
+    WARN,  // situazioni inattese
+    OFF    // solo come soglia: non registra nulla
+}
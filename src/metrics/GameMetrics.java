@@ -0,0 +1,185 @@
+package metrics;
+
+import model.Outcome;
+import model.RoundMetrics;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe GameMetrics che raccoglie le metriche del gioco: contatori di round, mani, carte
+ * chieste ed esiti, e istogrammi delle latenze delle azioni del controller e del disegno.
+ * <p>
+ * I contatori sono {@link LongAdder} (a celle separate per thread, senza contesa) e gli
+ * istogrammi non usano lock né allocano, quindi la raccolta resta sempre attiva. Un thread in
+ * background può scrivere periodicamente un resoconto in fondo a un file.
+ */
+public final class GameMetrics {
+
+    /** File predefinito dei resoconti, modificabile con -Dblackjack.metricsFile. */
+    public static final String FILE_PATH = System.getProperty("blackjack.metricsFile", "metrics.log");
+    /** Intervallo predefinito tra due resoconti, modificabile con -Dblackjack.metricsMillis. */
+    public static final long DEFAULT_REPORT_MILLIS = Long.getLong("blackjack.metricsMillis", 10_000L);
+
+    /** Round avviati. */
+    public static final LongAdder ROUNDS = new LongAdder();
+    /** Mani valutate a fine round, una per posto. */
+    public static final LongAdder HANDS = new LongAdder();
+    /** Carte chieste, dal giocatore e dai bot. */
+    public static final LongAdder HITS = new LongAdder();
+    /** Mani concluse stando. */
+    public static final LongAdder STANDS = new LongAdder();
+    /** Mani vinte. */
+    public static final LongAdder WINS = new LongAdder();
+    /** Mani perse senza sballare. */
+    public static final LongAdder LOSSES = new LongAdder();
+    /** Mani pareggiate. */
+    public static final LongAdder TIES = new LongAdder();
+    /** Mani sballate. */
+    public static final LongAdder BUSTS = new LongAdder();
+
+    /** Metriche da impostare sui motori di gioco (vedi {@code GameEngine.setMetrics}) per aggiornare i contatori. */
+    public static final RoundMetrics ENGINE = new RoundMetrics() {
+        @Override
+        public void roundStarted() {
+            ROUNDS.increment();
+        }
+
+        @Override
+        public void decision(boolean hit) {
+            (hit ? HITS : STANDS).increment();
+        }
+
+        @Override
+        public void outcome(Outcome outcome) {
+            HANDS.increment();
+            switch (outcome) {
+                case WIN:
+                    WINS.increment();
+                    break;
+                case LOSS:
+                    LOSSES.increment();
+                    break;
+                case TIE:
+                    TIES.increment();
+                    break;
+                default:
+                    BUSTS.increment();
+                    break;
+            }
+        }
+    };
+
+    /** Latenza dell'avvio di un round nel controller. */
+    public static final Histogram START = new Histogram("start");
+    /** Latenza dell'azione "hit" nel controller. */
+    public static final Histogram HIT = new Histogram("hit");
+    /** Latenza dell'azione "stay" nel controller. */
+    public static final Histogram STAY = new Histogram("stay");
+    /** Latenza dell'azione "retry" nel controller. */
+    public static final Histogram RETRY = new Histogram("retry");
+    /** Durata del disegno di un frame in GameGUI. */
+    public static final Histogram DRAW_GAME = new Histogram("drawGame");
+
+    private static final Histogram[] HISTOGRAMS = {START, HIT, STAY, RETRY, DRAW_GAME};
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private static ScheduledExecutorService reporter;
+    private static File reportFile; // file del reporter attivo
+    private static long lastRounds;
+    private static long lastReportNanos = System.nanoTime();
+
+    private GameMetrics() { }
+
+    /**
+     * Restituisce un resoconto di tutte le metriche. I round al secondo sono calcolati
+     * rispetto al resoconto precedente.
+     *
+     * @return Il resoconto, su più righe.
+     */
+    public static synchronized String snapshot() {
+        long now = System.nanoTime();
+        long rounds = ROUNDS.sum();
+        double seconds = (now - lastReportNanos) / 1e9;
+        double roundsPerSecond = seconds > 0 ? (rounds - lastRounds) / seconds : 0;
+        lastRounds = rounds;
+        lastReportNanos = now;
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(LocalDateTime.now().format(TIME))
+                .append(" rounds=").append(rounds).append(String.format(" (%.1f/s)", roundsPerSecond))
+                .append(" hands=").append(HANDS.sum())
+                .append(" hits=").append(HITS.sum())
+                .append(" stands=").append(STANDS.sum())
+                .append(" wins=").append(WINS.sum())
+                .append(" losses=").append(LOSSES.sum())
+                .append(" ties=").append(TIES.sum())
+                .append(" busts=").append(BUSTS.sum()).append('\n');
+        for (Histogram histogram : HISTOGRAMS) {
+            if (histogram.getCount() > 0) {
+                sb.append("  ").append(histogram).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Avvia la scrittura periodica dei resoconti, se non è già attiva.
+     *
+     * @param file Il file in fondo al quale scrivere.
+     * @param periodMillis Intervallo tra due resoconti.
+     */
+    public static synchronized void startReporter(File file, long periodMillis) {
+        if (reporter != null) {
+            return;
+        }
+        reportFile = file;
+        reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "metrics-reporter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        reporter.scheduleAtFixedRate(() -> dump(file), periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Avvia la scrittura periodica dei resoconti nel file e con l'intervallo predefiniti.
+     */
+    public static void startReporter() {
+        startReporter(new File(FILE_PATH), DEFAULT_REPORT_MILLIS);
+    }
+
+    /**
+     * Ferma la scrittura periodica e scrive un ultimo resoconto nel file del reporter.
+     */
+    public static synchronized void stopReporter() {
+        if (reporter != null) {
+            reporter.shutdownNow();
+            reporter = null;
+            dump(reportFile);
+            reportFile = null;
+        }
+    }
+
+    /**
+     * Scrive un resoconto in fondo a un file.
+     *
+     * @param file Il file.
+     */
+    public static void dump(File file) {
+        try (Writer writer = new FileWriter(file, StandardCharsets.UTF_8, true)) {
+            writer.write(snapshot());
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Classe Histogram che raccoglie la distribuzione di una latenza in secchi di dimensione fissa.
+ * <p>
+ * Il secchio i contiene le durate comprese tra 2^(i-1) e 2^i nanosecondi, quindi i percentili
+ * hanno una precisione di un fattore 2, sufficiente per distinguere microsecondi da millisecondi.
+ * La registrazione non usa lock e non alloca: un incremento atomico nell'array dei secchi, uno
+ * sul totale e uno sul massimo. Può essere chiamata da qualsiasi thread.
+ */
+public class Histogram {
+
+    private static final int BUCKETS = 48; // fino a 2^47 ns, circa 39 ore
+
+    private final String name;
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Costruttore della classe Histogram.
+     *
+     * @param name Nome della misura, usato nei resoconti.
+     */
+    public Histogram(String name) {
+        this.name = name;
+    }
+
+    /**
+     * Registra una durata.
+     *
+     * @param nanos Durata in nanosecondi.
+     */
+    public void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(nanos));
+        buckets.incrementAndGet(bucket);
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Registra il tempo trascorso da un istante.
+     *
+     * @param startNanos L'istante iniziale, letto con {@link System#nanoTime()}.
+     */
+    public void recordSince(long startNanos) {
+        record(System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Restituisce il numero di durate registrate.
+     *
+     * @return Il numero di durate.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /**
+     * Restituisce la durata media.
+     *
+     * @return La media in millisecondi.
+     */
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0 : totalNanos.sum() / 1_000_000.0 / n;
+    }
+
+    /**
+     * Restituisce la durata massima.
+     *
+     * @return Il massimo in millisecondi.
+     */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * Restituisce un limite superiore del percentile richiesto: il limite del secchio che lo contiene.
+     *
+     * @param quantile Il quantile, tra 0 e 1 (ad esempio 0.99).
+     * @return Il limite superiore in millisecondi, 0 se non ci sono durate.
+     */
+    public double getPercentileMillis(double quantile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets.get(i);
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0;
+        }
+        long target = (long) Math.ceil(quantile * total);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= target) {
+                return (1L << i) / 1_000_000.0;
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * Restituisce il nome della misura.
+     *
+     * @return Il nome.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Restituisce un riepilogo della distribuzione.
+     *
+     * @return Il riepilogo.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s: count=%d mean=%.3fms p50<=%.3fms p99<=%.3fms max=%.3fms",
+                name, getCount(), getMeanMillis(), getPercentileMillis(0.5), getPercentileMillis(0.99), getMaxMillis());
+    }
+}
@@ -1,11 +1,33 @@
 package model;
 
-import java.util.stream.IntStream;
-
 public class Card {
+    /** Numero di carte distinte in un mazzo da 52. */
+    public static final int CARD_COUNT = 52;
+    /** Indice di rango dell'Asso. */
+    public static final int ACE = 12;
+
+    private static final String[] SUITS = {"H", "D", "C", "S"};
+    private static final String[] RANKS = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
+    private static final int[] VALUES = {2, 3, 4, 5, 6, 7, 8, 9, 10, 10, 10, 10, 11};
+    private static final int[] ACE_VALUES = {2, 3, 4, 5, 6, 7, 8, 9, 10, 10, 10, 10, 10};
+
+    // Tabella delle 52 carte canoniche, indicizzata dal codice della carta
+    private static final Card[] TABLE = new Card[CARD_COUNT];
+
+    static {
+        for (int rank = 0; rank < RANKS.length; rank++) {
+            for (int suit = 0; suit < SUITS.length; suit++) {
+                TABLE[code(rank, suit)] = new Card(SUITS[suit], RANKS[rank], VALUES[rank]);
+            }
+        }
+    }
+
     private final String suit; // seme della carta
     private final String rank; // valore della carta
     private final int value;   // valore numerico della carta
+    private final byte code;   // rango e seme impacchettati: (rango << 2) | seme
+    private final String name; // rappresentazione "valore-seme"
+    private final String imagePath; // percorso dell'immagine, calcolato una sola volta
 
     /**
      * Costruttore della classe Card.
@@ -13,11 +35,77 @@ public class Card {
      * @param suit  il seme della carta
      * @param rank  il valore della carta
      * @param value il valore numerico della carta
+     * @throws IllegalArgumentException se il seme o il valore non appartengono a un mazzo da 52 carte
      */
     public Card(String suit, String rank, int value) {
         this.suit = suit;
         this.rank = rank;
         this.value = value;
+        this.code = (byte) code(indexOf(RANKS, rank), indexOf(SUITS, suit));
+        this.name = rank + "-" + suit;
+        this.imagePath = "Cards/" + name + ".png";
+    }
+
+    /**
+     * Restituisce la carta canonica corrispondente a un codice. Le carte canoniche sono
+     * condivise, quindi pescare e valutare carte tramite codice non alloca nuovi oggetti.
+     *
+     * @param code il codice della carta, da 0 a 51
+     * @return la carta canonica con quel codice
+     */
+    public static Card of(int code) {
+        return TABLE[code];
+    }
+
+    /**
+     * Calcola il codice di una carta a partire dagli indici di rango e seme.
+     *
+     * @param rank l'indice del rango, da 0 (il 2) a 12 (l'Asso)
+     * @param suit l'indice del seme, da 0 a 3
+     * @return il codice della carta
+     */
+    public static int code(int rank, int suit) {
+        return (rank << 2) | suit;
+    }
+
+    /**
+     * Restituisce l'indice di rango di un codice carta.
+     *
+     * @param code il codice della carta
+     * @return l'indice del rango, da 0 (il 2) a 12 (l'Asso)
+     */
+    public static int rankOf(int code) {
+        return code >> 2;
+    }
+
+    /**
+     * Restituisce l'indice di seme di un codice carta.
+     *
+     * @param code il codice della carta
+     * @return l'indice del seme, da 0 a 3
+     */
+    public static int suitOf(int code) {
+        return code & 3;
+    }
+
+    /**
+     * Restituisce il valore numerico di un codice carta, con l'Asso che vale 11.
+     *
+     * @param code il codice della carta
+     * @return il valore numerico della carta
+     */
+    public static int valueOf(int code) {
+        return VALUES[code >> 2];
+    }
+
+    /**
+     * Verifica se un codice carta corrisponde a un Asso.
+     *
+     * @param code il codice della carta
+     * @return true se la carta è un Asso, false altrimenti
+     */
+    public static boolean isAce(int code) {
+        return (code >> 2) == ACE;
     }
 
     /**
@@ -47,6 +135,15 @@ public class Card {
         return value;
     }
 
+    /**
+     * Restituisce il codice compatto della carta.
+     *
+     * @return il codice della carta, da 0 a 51
+     */
+    public byte getCode() {
+        return code;
+    }
+
     /**
      * Restituisce una rappresentazione sotto forma di stringa della carta.
      *
@@ -55,21 +152,16 @@ public class Card {
      */
     @Override
     public String toString() {
-        return rank + "-" + suit;
+        return name;
     }
 
     /**
-     * Questa funzione utilizza uno stream di interi per iterare attraverso i possibili valori dell'Asso (10, 10, 10, 11)
-     * e ritorna il primo valore che corrisponde al seme della carta. Se non viene trovato alcun valore corrispondente,
-     * viene restituito il valore numerico della carta.
+     * Restituisce il valore della carta contando le figure e l'Asso come 10.
      *
      * @return il valore della carta Asso
      */
     public int getValueOfAce() {
-        return IntStream.of(10, 10, 10, 11)
-                .filter(val -> rank.equals("A") || rank.equals("J") || rank.equals("Q") || rank.equals("K"))
-                .findFirst()
-                .orElse(Integer.parseInt(rank));
+        return ACE_VALUES[code >> 2];
     }
 
 
@@ -79,15 +171,32 @@ public class Card {
      * @return true se la carta è un Asso, false altrimenti
      */
     public boolean isAce() {
-        return rank.equals("A");
+        return (code >> 2) == ACE;
     }
 
     /**
      * Restituisce il percorso dell'immagine della carta.
      *
-     * @return il percorso dell'immagine della carta, nel formato "cards/valore-seme.png"
+     * @return il percorso dell'immagine della carta, nel formato "Cards/valore-seme.png"
      */
     public String getImagePath() {
-        return "cards/" + toString() + ".png";
+        return imagePath;
+    }
+
+    /**
+     * Cerca una stringa in un array.
+     *
+     * @param values l'array in cui cercare
+     * @param value  la stringa da cercare
+     * @return l'indice della stringa nell'array
+     * @throws IllegalArgumentException se la stringa non è presente
+     */
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException("Unknown card component: " + value);
     }
 }
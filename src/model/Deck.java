@@ -1,13 +1,28 @@
 package model;
 
-import java.util.Collections;
-import java.util.List;
-import java.util.Stack;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Arrays;
+import java.util.Random;
 
 public class Deck {
-    private Stack<Card> cards; // mazzo di carte rappresentato come uno stack
+    /** Numero minimo di mazzi nello shoe. */
+    public static final int MIN_DECKS = 1;
+    /** Numero massimo di mazzi nello shoe. */
+    public static final int MAX_DECKS = 8;
+    /** Penetrazione predefinita: lo shoe viene rimescolato dopo aver distribuito il 75% delle carte. */
+    public static final double DEFAULT_PENETRATION = 0.75;
+
+    // Peso Hi-Lo per rango: +1 dal 2 al 6, 0 dal 7 al 9, -1 per 10, figure e Asso
+    private static final int[] HI_LO = {1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1, -1};
+
+    private int[] cards;         // codici delle carte dello shoe, nell'ordine di distribuzione
+    private int numDecks;
+    private int next;            // indice della prossima carta da pescare
+    private int roundStart;      // indice della prima carta del round in corso
+    private int cutCard;         // posizione della carta di taglio
+    private final int[] remainingByRank = new int[Card.ACE + 1]; // carte rimaste per rango
+    private int runningCount;    // conteggio Hi-Lo delle carte pescate dall'ultimo rimescolamento
+    private final double penetration;
+    private final Random random; // generatore usato per mescolare lo shoe, null per uno shoe registrato
 
     /**
      * Costruttore della classe Deck. Costruisce un mazzo di carte mescolato.
@@ -15,36 +30,205 @@ public class Deck {
      * @param numDecks il numero di mazzi da usare per creare il mazzo
      */
     public Deck(int numDecks) {
-        cards = new Stack<>();
+        this(numDecks, new Random());
+    }
+
+    /**
+     * Costruttore della classe Deck con un generatore casuale esplicito. Usando lo stesso seme
+     * si ottiene sempre lo stesso ordine delle carte, utile per simulazioni riproducibili.
+     *
+     * @param numDecks il numero di mazzi da usare per creare il mazzo
+     * @param random   il generatore casuale usato per mescolare il mazzo
+     */
+    public Deck(int numDecks, Random random) {
+        this(numDecks, DEFAULT_PENETRATION, random);
+    }
+
+    /**
+     * Costruttore della classe Deck con penetrazione configurabile. Lo shoe viene riutilizzato
+     * tra un round e l'altro e rimescolato solo quando si raggiunge la carta di taglio.
+     *
+     * @param numDecks    il numero di mazzi da usare per creare il mazzo, da 1 a 8
+     * @param penetration la frazione dello shoe da distribuire prima di rimescolare, tra 0 e 1
+     * @param random      il generatore casuale usato per mescolare il mazzo
+     * @throws IllegalArgumentException se il numero di mazzi o la penetrazione non sono validi
+     */
+    public Deck(int numDecks, double penetration, Random random) {
+        if (penetration <= 0 || penetration > 1) {
+            throw new IllegalArgumentException("penetration must be in (0, 1]: " + penetration);
+        }
+        this.penetration = penetration;
+        this.random = random;
         buildDeck(numDecks); // costruisce il mazzo con il numero specificato di mazzi
-        Collections.shuffle(cards); // mescola il mazzo di carte
+        shuffle(); // mescola il mazzo di carte
+    }
+
+    /**
+     * Costruttore della classe Deck per uno shoe con un ordine delle carte già noto, ad esempio
+     * quello registrato nello storico delle mani. Le carte vengono distribuite esattamente
+     * nell'ordine indicato e lo shoe non viene mai rimescolato: per rigiocare una partita con un
+     * seme noto basta invece {@link #Deck(int, Random)} con lo stesso seme.
+     *
+     * @param numDecks il numero di mazzi dello shoe originale, da 1 a 8
+     * @param order    i codici delle carte (vedi {@link Card#getCode()}) nell'ordine di distribuzione
+     * @throws IllegalArgumentException se il numero di mazzi non è valido
+     */
+    public Deck(int numDecks, int[] order) {
+        if (numDecks < MIN_DECKS || numDecks > MAX_DECKS) {
+            throw new IllegalArgumentException("numDecks must be between " + MIN_DECKS + " and " + MAX_DECKS + ": " + numDecks);
+        }
+        this.penetration = 1;
+        this.random = null;
+        this.numDecks = numDecks;
+        this.cards = order.clone();
+        cutCard = cards.length + 1; // la carta di taglio non viene mai raggiunta
+        resetCount();
+    }
+
+    /**
+     * Azzera il conteggio Hi-Lo e riporta i contatori per rango alle carte dello shoe: lo shoe
+     * completo, oppure solo le carte registrate per uno shoe con un ordine già noto.
+     */
+    private void resetCount() {
+        runningCount = 0;
+        if (random == null) {
+            Arrays.fill(remainingByRank, 0);
+            for (int code : cards) {
+                remainingByRank[Card.rankOf(code)]++;
+            }
+            return;
+        }
+        for (int rank = 0; rank <= Card.ACE; rank++) {
+            remainingByRank[rank] = 4 * getNumDecks();
+        }
     }
 
     /**
      * Costruisce il mazzo di carte utilizzando il numero specificato di mazzi.
      *
-     * @param numDecks il numero di mazzi da usare per creare il mazzo
+     * @param numDecks il numero di mazzi da usare per creare il mazzo, da 1 a 8
+     * @throws IllegalArgumentException se il numero di mazzi non è valido
      */
     public void buildDeck(int numDecks) {
-        // Array di semi delle carte
-        String[] suits = {"H", "D", "C", "S"};
-        // Array di ranghi delle carte
-        String[] ranks = {"2", "3", "4", "5", "6", "7", "8", "9", "10", "J", "Q", "K", "A"};
-        // Array di valori corrispondenti ai ranghi delle carte
-        int[] values = {2, 3, 4, 5, 6, 7, 8, 9, 10, 10, 10, 10, 11};
+        if (numDecks < MIN_DECKS || numDecks > MAX_DECKS) {
+            throw new IllegalArgumentException("numDecks must be between " + MIN_DECKS + " and " + MAX_DECKS + ": " + numDecks);
+        }
+        if (cards == null || cards.length != numDecks * Card.CARD_COUNT) {
+            cards = new int[numDecks * Card.CARD_COUNT];
+        }
+        this.numDecks = numDecks;
+        // Inserisce i codici delle carte per ogni mazzo, seme per seme
+        int i = 0;
+        for (int n = 0; n < numDecks; n++) {
+            for (int suit = 0; suit < 4; suit++) {
+                for (int rank = 0; rank <= Card.ACE; rank++) {
+                    cards[i++] = Card.code(rank, suit);
+                }
+            }
+        }
+        next = 0;
+        roundStart = 0;
+        cutCard = (int) (cards.length * penetration);
+        resetCount();
+    }
 
-        // Genera una lista di nuove carte per il numero specificato di mazzi
-        List<Card> newCards = IntStream.range(0, numDecks) // genera un range di numeri per il numero di mazzi
-                .boxed() // converte gli int in Integer per operazioni di stream
-                .flatMap(n -> IntStream.range(0, suits.length) // per ogni mazzo, genera carte per ogni seme
-                        .boxed()
-                        .flatMap(i -> IntStream.range(0, ranks.length)
-                                .mapToObj(j -> new Card(suits[i], ranks[j], values[j]))
-                        )
-                )
-                .collect(Collectors.toList()); // raccoglie tutte le carte in una lista
+    /**
+     * Rimescola sul posto tutte le carte dello shoe (Fisher-Yates) e riparte dalla prima.
+     *
+     * @throws IllegalStateException se lo shoe ha un ordine registrato
+     */
+    public void shuffle() {
+        if (random == null) {
+            throw new IllegalStateException("A recorded shoe cannot be shuffled");
+        }
+        for (int i = cards.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+        next = 0;
+        roundStart = 0;
+        resetCount();
+    }
 
-        cards.addAll(newCards); // aggiunge tutte le nuove carte al mazzo
+    /**
+     * Rimescola a metà round, quando lo shoe è esaurito, solo gli scarti dei round precedenti.
+     * Le carte del round in corso restano sul tavolo: vengono spostate in testa allo shoe, come
+     * già pescate, e contano nel conteggio Hi-Lo del nuovo shoe, così nessuna carta sul tavolo
+     * può essere distribuita una seconda volta. Se non ci sono scarti (chi usa lo shoe non segna
+     * i round con {@link #shuffleIfNeeded()}) viene rimescolato l'intero shoe.
+     */
+    private void reshuffleDiscards() {
+        int inPlay = next - roundStart;
+        if (roundStart == 0) {
+            shuffle();
+            return;
+        }
+        // porta le carte del round in testa e gli scarti in coda, ruotando l'array
+        int[] table = new int[inPlay];
+        System.arraycopy(cards, roundStart, table, 0, inPlay);
+        System.arraycopy(cards, 0, cards, inPlay, roundStart);
+        System.arraycopy(table, 0, cards, 0, inPlay);
+        for (int i = cards.length - 1; i > inPlay; i--) {
+            int j = inPlay + random.nextInt(i - inPlay + 1);
+            int tmp = cards[i];
+            cards[i] = cards[j];
+            cards[j] = tmp;
+        }
+        resetCount();
+        for (int i = 0; i < inPlay; i++) {
+            int rank = Card.rankOf(cards[i]);
+            remainingByRank[rank]--;
+            runningCount += HI_LO[rank];
+        }
+        roundStart = 0;
+        next = inPlay;
+    }
+
+    /**
+     * Verifica se è stata raggiunta la carta di taglio.
+     *
+     * @return true se lo shoe va rimescolato prima del prossimo round
+     */
+    public boolean needsShuffle() {
+        return next >= cutCard;
+    }
+
+    /**
+     * Rimescola lo shoe solo se è stata raggiunta la carta di taglio. Va chiamato all'inizio di
+     * ogni round: segna anche le carte successive come carte del round in corso.
+     *
+     * @return true se lo shoe è stato rimescolato
+     */
+    public boolean shuffleIfNeeded() {
+        if (needsShuffle()) {
+            shuffle();
+            return true;
+        }
+        roundStart = next;
+        return false;
+    }
+
+    /**
+     * Pesca il codice della prossima carta. Se lo shoe è esaurito a metà round vengono rimescolati
+     * gli scarti, senza le carte del round in corso.
+     *
+     * @return il codice della carta pescata
+     * @throws IllegalStateException se le carte di uno shoe registrato sono finite
+     */
+    public int drawCode() {
+        if (next == cards.length) {
+            if (random == null) {
+                throw new IllegalStateException("No more recorded cards");
+            }
+            reshuffleDiscards();
+        }
+        int code = cards[next++];
+        int rank = Card.rankOf(code);
+        remainingByRank[rank]--;
+        runningCount += HI_LO[rank];
+        return code;
     }
 
     /**
@@ -53,6 +237,70 @@ public class Deck {
      * @return la carta pescata dal mazzo
      */
     public Card drawCard() {
-        return cards.pop(); // estrae e restituisce la carta in cima allo stack (mazzo)
+        return Card.of(drawCode());
+    }
+
+    /**
+     * Restituisce il numero di mazzi contenuti nello shoe.
+     *
+     * @return il numero di mazzi
+     */
+    public int getNumDecks() {
+        return numDecks;
+    }
+
+    /**
+     * Restituisce il conteggio Hi-Lo corrente delle carte pescate dall'ultimo rimescolamento.
+     * La carta nascosta del dealer è contata quando viene pescata dallo shoe.
+     *
+     * @return il running count
+     */
+    public int getRunningCount() {
+        return runningCount;
+    }
+
+    /**
+     * Restituisce il true count: il running count diviso per i mazzi rimasti nello shoe.
+     *
+     * @return il true count, 0 se lo shoe è vuoto
+     */
+    public double getTrueCount() {
+        int remaining = getCardsRemaining();
+        return remaining == 0 ? 0 : runningCount * (double) Card.CARD_COUNT / remaining;
+    }
+
+    /**
+     * Restituisce il numero di carte non ancora pescate.
+     *
+     * @return le carte rimaste nello shoe
+     */
+    public int getCardsRemaining() {
+        return cards.length - next;
+    }
+
+    /**
+     * Restituisce il numero di carte di un rango non ancora pescate.
+     *
+     * @param rank l'indice del rango, da 0 (il 2) a 12 (l'Asso)
+     * @return le carte rimaste di quel rango
+     */
+    public int getRemainingOfRank(int rank) {
+        return remainingByRank[rank];
+    }
+
+    /**
+     * Scrive la composizione delle carte rimaste per valore, nel formato usato da
+     * {@link strategy.DealerProbabilities}: dal 2 al 9, poi tutte le carte da 10, poi l'Asso.
+     *
+     * @param composition l'array di 10 contatori da riempire
+     * @return lo stesso array, per comodità
+     */
+    public int[] getComposition(int[] composition) {
+        for (int rank = 0; rank < 8; rank++) {
+            composition[rank] = remainingByRank[rank];
+        }
+        composition[8] = remainingByRank[8] + remainingByRank[9] + remainingByRank[10] + remainingByRank[11];
+        composition[9] = remainingByRank[Card.ACE];
+        return composition;
     }
 }
@@ -0,0 +1,103 @@
+package model;
+
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+/**
+ * Classe EventBus che notifica gli iscritti di un evento tipizzato.
+ * <p>
+ * Ogni iscritto indica l'executor su cui ricevere gli eventi (ad esempio il thread di Swing)
+ * e riceve solo l'evento più recente: una raffica di pubblicazioni ravvicinate, come le carte
+ * pescate dal dealer, produce una sola consegna per iscritto. Gli eventi devono quindi
+ * descrivere lo stato completo, non una variazione.
+ *
+ * @param <E> Il tipo degli eventi.
+ */
+public class EventBus<E> {
+
+    private final CopyOnWriteArrayList<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+
+    /**
+     * Iscrive un ascoltatore.
+     *
+     * @param listener L'ascoltatore degli eventi.
+     * @param executor L'executor su cui consegnare gli eventi all'ascoltatore.
+     * @return L'iscrizione, da chiudere per smettere di ricevere eventi.
+     */
+    public Subscription subscribe(Consumer<? super E> listener, Executor executor) {
+        Subscription subscription = new Subscription(listener, executor);
+        subscriptions.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Pubblica un evento a tutti gli iscritti.
+     *
+     * @param event L'evento.
+     */
+    public void publish(E event) {
+        for (Subscription subscription : subscriptions) {
+            subscription.offer(event);
+        }
+    }
+
+    /**
+     * Restituisce il numero di iscritti.
+     *
+     * @return Il numero di iscrizioni attive.
+     */
+    public int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    /**
+     * Iscrizione di un ascoltatore, con l'ultimo evento non ancora consegnato.
+     */
+    public final class Subscription implements AutoCloseable {
+        private final Consumer<? super E> listener;
+        private final Executor executor;
+        private final AtomicReference<E> latest = new AtomicReference<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean closed;
+
+        private Subscription(Consumer<? super E> listener, Executor executor) {
+            this.listener = listener;
+            this.executor = executor;
+        }
+
+        /**
+         * Sostituisce l'evento in attesa e pianifica una consegna se non ce n'è già una.
+         *
+         * @param event L'evento.
+         */
+        private void offer(E event) {
+            latest.set(event);
+            if (scheduled.compareAndSet(false, true)) {
+                executor.execute(this::deliver);
+            }
+        }
+
+        /**
+         * Consegna l'evento più recente all'ascoltatore.
+         */
+        private void deliver() {
+            scheduled.set(false);
+            E event = latest.getAndSet(null);
+            if (event != null && !closed) {
+                listener.accept(event);
+            }
+        }
+
+        /**
+         * Annulla l'iscrizione; gli eventi in attesa non vengono consegnati.
+         */
+        @Override
+        public void close() {
+            closed = true;
+            subscriptions.remove(this);
+        }
+    }
+}
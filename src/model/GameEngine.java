@@ -0,0 +1,330 @@
+package model;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.BiPredicate;
+
+/**
+ * Classe GameEngine che contiene le regole di un round di Blackjack, indipendenti
+ * dall'interfaccia grafica: distribuzione, richiesta di carte, passaggio automatico al
+ * dealer a 21 o oltre, turno del dealer ed esito.
+ * <p>
+ * Il tavolo ha da 1 a 7 posti: il posto 0 è il giocatore umano, gli altri sono bot che
+ * giocano subito dopo la distribuzione seguendo una strategia a tabella (ad esempio
+ * {@code BasicStrategy::shouldHit}). A fine round tutti i posti vengono confrontati con il
+ * dealer in un solo passaggio.
+ * <p>
+ * Se è impostato un {@link HandRecorder}, ogni carta, decisione ed esito gli viene segnalato
+ * nell'ordine in cui avviene; allo stesso modo round, decisioni ed esiti vengono contati dalle
+ * {@link RoundMetrics} impostate.
+ * <p>
+ * Ogni azione restituisce un {@link GameState} immutabile. La classe non è thread-safe:
+ * chi la usa da più thread (ad esempio un tavolo del server) deve serializzare le chiamate.
+ */
+public class GameEngine {
+
+    /** Numero minimo di posti al tavolo. */
+    public static final int MIN_SEATS = 1;
+    /** Numero massimo di posti al tavolo. */
+    public static final int MAX_SEATS = 7;
+
+    private final Deck deck;
+    private final Hand dealer = new Hand();
+    private final Hand[] seats;      // il posto 0 è il giocatore umano
+    private final Hand player;
+    private final Outcome[] outcomes; // esito di ogni posto, riempito a fine round
+    private final BiPredicate<Hand, Card> botPolicy; // decide se un bot chiede carta
+
+    private HandRecorder recorder = HandRecorder.NONE;
+    private RoundMetrics metrics = RoundMetrics.NONE;
+    private long round; // identificativo del round assegnato dal registratore
+
+    private Card hiddenCard;
+    private Outcome outcome;
+    private boolean inRound;
+
+    /**
+     * Costruttore della classe GameEngine con il solo giocatore umano.
+     *
+     * @param deck Lo shoe da cui vengono distribuite le carte, riutilizzato tra i round.
+     */
+    public GameEngine(Deck deck) {
+        this(deck, 1, (hand, upcard) -> false);
+    }
+
+    /**
+     * Costruttore della classe GameEngine con più posti al tavolo.
+     *
+     * @param deck Lo shoe da cui vengono distribuite le carte, riutilizzato tra i round.
+     * @param numSeats Numero di posti, da {@value #MIN_SEATS} a {@value #MAX_SEATS}, giocatore umano compreso.
+     * @param botPolicy Strategia dei bot: riceve la mano del bot e la carta scoperta del dealer
+     *                  e restituisce true se il bot deve chiedere carta.
+     * @throws IllegalArgumentException se il numero di posti non è valido.
+     */
+    public GameEngine(Deck deck, int numSeats, BiPredicate<Hand, Card> botPolicy) {
+        if (numSeats < MIN_SEATS || numSeats > MAX_SEATS) {
+            throw new IllegalArgumentException("Seats must be between " + MIN_SEATS + " and " + MAX_SEATS + ": " + numSeats);
+        }
+        this.deck = deck;
+        this.botPolicy = botPolicy;
+        this.seats = new Hand[numSeats];
+        for (int i = 0; i < numSeats; i++) {
+            seats[i] = new Hand();
+        }
+        this.player = seats[0];
+        this.outcomes = new Outcome[numSeats];
+    }
+
+    /**
+     * Avvia un nuovo round; un round non concluso viene abbandonato. Se il giocatore ha 21 con
+     * le carte iniziali il round si conclude subito.
+     *
+     * @return Lo stato dopo la distribuzione.
+     */
+    public GameState startRound() {
+        deck.shuffleIfNeeded(); // rimescola solo alla carta di taglio
+        dealer.clear();
+        for (Hand seat : seats) {
+            seat.clear();
+        }
+        Arrays.fill(outcomes, null);
+        outcome = null;
+        round = recorder.roundStarted(seats.length, deck.getNumDecks());
+        hiddenCard = Player.dealInitialHands(deck, dealer, seats);
+        recordDeal();
+        inRound = true;
+        metrics.roundStarted();
+        playBots();
+        if (player.getSum() == 21) {
+            finishRound();
+        }
+        return snapshot();
+    }
+
+    /**
+     * Il giocatore chiede una carta. Se supera o raggiunge 21 il dealer gioca e il round si conclude.
+     *
+     * @return Lo stato dopo la carta.
+     * @throws IllegalStateException se non c'è un round in corso.
+     */
+    public GameState hit() {
+        requireRound();
+        recorder.decision(round, 0, true);
+        metrics.decision(true);
+        deal(0, player);
+        if (player.getSum() >= 21) {
+            finishRound();
+        }
+        return snapshot();
+    }
+
+    /**
+     * Il giocatore sta: il dealer gioca il suo turno e il round si conclude.
+     *
+     * @return Lo stato a fine round.
+     * @throws IllegalStateException se non c'è un round in corso.
+     */
+    public GameState stand() {
+        requireRound();
+        recorder.decision(round, 0, false);
+        metrics.decision(false);
+        finishRound();
+        return snapshot();
+    }
+
+    /**
+     * Restituisce l'esito dell'ultimo round.
+     *
+     * @return L'esito del round.
+     * @throws IllegalStateException se il round non è ancora concluso.
+     */
+    public Outcome result() {
+        if (outcome == null) {
+            throw new IllegalStateException("Round not finished");
+        }
+        return outcome;
+    }
+
+    /**
+     * Restituisce l'esito dell'ultimo round per un posto.
+     *
+     * @param seat Indice del posto, 0 per il giocatore umano.
+     * @return L'esito del posto.
+     * @throws IllegalStateException se il round non è ancora concluso.
+     */
+    public Outcome result(int seat) {
+        if (outcome == null) {
+            throw new IllegalStateException("Round not finished");
+        }
+        return outcomes[seat];
+    }
+
+    /**
+     * Restituisce lo stato corrente del round.
+     *
+     * @return Una fotografia immutabile del round.
+     */
+    public GameState snapshot() {
+        return new GameState(seats, dealer, !inRound, outcomes);
+    }
+
+    /**
+     * Indica se il round è concluso (o non è mai iniziato).
+     *
+     * @return true se non c'è un round in corso.
+     */
+    public boolean isRoundOver() {
+        return !inRound;
+    }
+
+    /**
+     * Restituisce la mano del giocatore.
+     *
+     * @return La mano del giocatore.
+     */
+    public Hand getPlayerHand() {
+        return player;
+    }
+
+    /**
+     * Restituisce la mano di un posto.
+     *
+     * @param seat Indice del posto, 0 per il giocatore umano.
+     * @return La mano del posto.
+     */
+    public Hand getSeatHand(int seat) {
+        return seats[seat];
+    }
+
+    /**
+     * Restituisce il numero di posti al tavolo, giocatore umano compreso.
+     *
+     * @return Il numero di posti.
+     */
+    public int getSeatCount() {
+        return seats.length;
+    }
+
+    /**
+     * Restituisce la mano del dealer.
+     *
+     * @return La mano del dealer.
+     */
+    public Hand getDealerHand() {
+        return dealer;
+    }
+
+    /**
+     * Restituisce la carta nascosta del dealer.
+     *
+     * @return La carta nascosta del dealer.
+     */
+    public Card getHiddenCard() {
+        return hiddenCard;
+    }
+
+    /**
+     * Imposta il registratore degli eventi dei round successivi.
+     *
+     * @param recorder Il registratore, oppure {@link HandRecorder#NONE} per non registrare.
+     */
+    public void setRecorder(HandRecorder recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Imposta le metriche dei round successivi.
+     *
+     * @param metrics Le metriche, oppure {@link RoundMetrics#NONE} per non contare.
+     */
+    public void setMetrics(RoundMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Restituisce lo shoe usato dal motore.
+     *
+     * @return Lo shoe.
+     */
+    public Deck getDeck() {
+        return deck;
+    }
+
+    /**
+     * Gioca le mani dei bot, nell'ordine dei posti, consultando la strategia a ogni carta.
+     */
+    private void playBots() {
+        Card upcard = dealer.getHand().get(1);
+        for (int i = 1; i < seats.length; i++) {
+            Hand bot = seats[i];
+            while (bot.getSum() < 21) {
+                boolean hit = botPolicy.test(bot, upcard);
+                recorder.decision(round, i, hit);
+                metrics.decision(hit);
+                if (!hit) {
+                    break;
+                }
+                deal(i, bot);
+            }
+        }
+    }
+
+    /**
+     * Pesca una carta per una mano e la segnala al registratore.
+     *
+     * @param seat Posto che riceve la carta.
+     * @param hand Mano del posto.
+     */
+    private void deal(int seat, Hand hand) {
+        Card card = deck.drawCard();
+        hand.addToHand(card);
+        recorder.cardDealt(round, seat, card.getCode());
+    }
+
+    /**
+     * Segnala al registratore le carte iniziali nell'ordine in cui sono uscite dallo shoe:
+     * le due carte del dealer, poi un giro di carte per volta a tutti i posti.
+     */
+    private void recordDeal() {
+        if (recorder == HandRecorder.NONE) {
+            return;
+        }
+        recorder.cardDealt(round, HandRecorder.DEALER, dealer.getHand().get(0).getCode());
+        recorder.cardDealt(round, HandRecorder.DEALER, dealer.getHand().get(1).getCode());
+        for (int i = 0; i < 2; i++) {
+            for (int seat = 0; seat < seats.length; seat++) {
+                recorder.cardDealt(round, seat, seats[seat].getHand().get(i).getCode());
+            }
+        }
+    }
+
+    /**
+     * Conclude il round: il dealer gioca e tutti i posti vengono confrontati con la sua mano
+     * in un solo passaggio.
+     */
+    private void finishRound() {
+        Player.playDealerHand(dealer, deck);
+        List<Card> dealerCards = dealer.getHand();
+        for (int i = 2; i < dealerCards.size(); i++) {
+            recorder.cardDealt(round, HandRecorder.DEALER, dealerCards.get(i).getCode());
+        }
+        for (int i = 0; i < seats.length; i++) {
+            outcomes[i] = Player.evaluate(seats[i], dealer);
+            recorder.outcome(round, i, outcomes[i]);
+            metrics.outcome(outcomes[i]);
+        }
+        outcome = outcomes[0];
+        inRound = false;
+    }
+
+    /**
+     * Verifica che ci sia un round in corso.
+     *
+     * @throws IllegalStateException se non c'è un round in corso.
+     */
+    private void requireRound() {
+        if (!inRound) {
+            throw new IllegalStateException("No round in progress");
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Classe GameState che rappresenta una fotografia immutabile di un round in un dato istante.
+ * Può essere passata liberamente tra thread e interfacce diverse. Il posto 0 è il giocatore
+ * umano; gli eventuali posti successivi sono i bot.
+ */
+public final class GameState {
+
+    private final List<Card> playerCards;
+    private final List<Card> dealerCards;
+    private final int playerSum;
+    private final int dealerSum;
+    private final boolean roundOver;
+    private final Outcome outcome;
+    private final List<List<Card>> seatCards;
+    private final int[] seatSums;
+    private final Outcome[] seatOutcomes;
+
+    /**
+     * Costruttore della classe GameState.
+     *
+     * @param seats Mani dei posti al tavolo; la prima è quella del giocatore.
+     * @param dealer Mano del dealer.
+     * @param roundOver Se il round è concluso.
+     * @param outcomes Esito di ogni posto, con elementi null se il round è in corso.
+     */
+    GameState(Hand[] seats, Hand dealer, boolean roundOver, Outcome[] outcomes) {
+        List<List<Card>> cards = new ArrayList<>(seats.length);
+        this.seatSums = new int[seats.length];
+        for (int i = 0; i < seats.length; i++) {
+            cards.add(List.copyOf(seats[i].getHand()));
+            seatSums[i] = seats[i].getSum();
+        }
+        this.seatCards = Collections.unmodifiableList(cards);
+        this.seatOutcomes = outcomes.clone();
+        this.playerCards = seatCards.get(0);
+        this.dealerCards = List.copyOf(dealer.getHand());
+        this.playerSum = seatSums[0];
+        this.dealerSum = dealer.getSum();
+        this.roundOver = roundOver;
+        this.outcome = seatOutcomes[0];
+    }
+
+    /**
+     * Restituisce le carte del giocatore.
+     *
+     * @return Le carte del giocatore, in sola lettura.
+     */
+    public List<Card> getPlayerCards() {
+        return playerCards;
+    }
+
+    /**
+     * Restituisce tutte le carte del dealer; la prima è la carta nascosta.
+     *
+     * @return Le carte del dealer, in sola lettura.
+     */
+    public List<Card> getDealerCards() {
+        return dealerCards;
+    }
+
+    /**
+     * Restituisce la carta scoperta del dealer.
+     *
+     * @return La carta scoperta del dealer.
+     */
+    public Card getDealerUpcard() {
+        return dealerCards.get(1);
+    }
+
+    /**
+     * Restituisce il punteggio del giocatore.
+     *
+     * @return Il punteggio del giocatore.
+     */
+    public int getPlayerSum() {
+        return playerSum;
+    }
+
+    /**
+     * Restituisce il punteggio completo del dealer, carta nascosta compresa.
+     *
+     * @return Il punteggio del dealer.
+     */
+    public int getDealerSum() {
+        return dealerSum;
+    }
+
+    /**
+     * Restituisce il punteggio del dealer visibile al giocatore: la sola carta scoperta
+     * durante il round, tutta la mano a round concluso.
+     *
+     * @return Il punteggio visibile del dealer.
+     */
+    public int getVisibleDealerSum() {
+        return roundOver ? dealerSum : getDealerUpcard().getValue();
+    }
+
+    /**
+     * Indica se il round è concluso.
+     *
+     * @return true se il round è concluso.
+     */
+    public boolean isRoundOver() {
+        return roundOver;
+    }
+
+    /**
+     * Restituisce l'esito del round.
+     *
+     * @return L'esito, oppure null se il round è in corso.
+     */
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    /**
+     * Restituisce il numero di posti al tavolo, giocatore compreso.
+     *
+     * @return Il numero di posti.
+     */
+    public int getSeatCount() {
+        return seatSums.length;
+    }
+
+    /**
+     * Restituisce le carte di un posto.
+     *
+     * @param seat Indice del posto, 0 per il giocatore.
+     * @return Le carte del posto, in sola lettura.
+     */
+    public List<Card> getSeatCards(int seat) {
+        return seatCards.get(seat);
+    }
+
+    /**
+     * Restituisce il punteggio di un posto.
+     *
+     * @param seat Indice del posto, 0 per il giocatore.
+     * @return Il punteggio del posto.
+     */
+    public int getSeatSum(int seat) {
+        return seatSums[seat];
+    }
+
+    /**
+     * Restituisce l'esito di un posto.
+     *
+     * @param seat Indice del posto, 0 per il giocatore.
+     * @return L'esito, oppure null se il round è in corso.
+     */
+    public Outcome getSeatOutcome(int seat) {
+        return seatOutcomes[seat];
+    }
+}
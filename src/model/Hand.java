@@ -1,51 +1,82 @@
 package model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class Hand {
     private List<Card> hand; // lista delle carte nella mano
+    private List<Card> view; // vista in sola lettura della lista, per non desincronizzare i totali
+    private int hardTotal;   // somma dei valori contando ogni Asso come 1
+    private int aceCount;    // numero di Assi nella mano
 
     /**
      * Costruttore della classe Hand. Inizializza una nuova mano vuota.
      */
     public Hand() {
         this.hand = new ArrayList<>();
+        this.view = Collections.unmodifiableList(hand);
     }
 
     /**
-     * Aggiunge una carta alla mano.
+     * Aggiunge una carta alla mano, aggiornando il totale e il numero di Assi.
      *
      * @param card la carta da aggiungere alla mano
      */
     public void addToHand(Card card) {
         hand.add(card);
+        if (card.isAce()) {
+            aceCount++;
+            hardTotal += 1;
+        } else {
+            hardTotal += card.getValue();
+        }
     }
 
     /**
-     * Restituisce la somma dei valori delle carte nella mano considerando la logica degli assi.
+     * Svuota la mano, così da poterla riutilizzare per un nuovo round.
+     */
+    public void clear() {
+        hand.clear();
+        hardTotal = 0;
+        aceCount = 0;
+    }
+
+    /**
+     * Restituisce la somma dei valori delle carte nella mano considerando la logica degli assi:
+     * un Asso vale 11 finché la mano non supera 21.
      *
      * @return la somma dei valori delle carte nella mano
      */
     public int getSum() {
-        int sum = hand.stream().mapToInt(Card::getValue).sum();
-        long aceCount = hand.stream().filter(Card::isAce).count();
+        return isSoft() ? hardTotal + 10 : hardTotal;
+    }
 
-        while (sum > 21 && aceCount > 0) {
-            sum -= 10;
-            aceCount--;
-        }
+    /**
+     * Verifica se la mano è "soft", cioè se contiene un Asso contato come 11.
+     *
+     * @return true se un Asso vale 11 nel totale della mano
+     */
+    public boolean isSoft() {
+        return aceCount > 0 && hardTotal <= 11;
+    }
 
-        return sum;
+    /**
+     * Verifica se la mano è un Blackjack, cioè 21 con le sole due carte iniziali.
+     *
+     * @return true se la mano è un Blackjack
+     */
+    public boolean isBlackjack() {
+        return hand.size() == 2 && getSum() == 21;
     }
 
     /**
      * Restituisce la lista delle carte nella mano.
      *
-     * @return la lista delle carte nella mano
+     * @return la lista delle carte nella mano, in sola lettura
      */
     public List<Card> getHand() {
-        return hand;
+        return view;
     }
 
     /**
@@ -54,6 +85,6 @@ public class Hand {
      * @return il numero di Assi presenti nella mano
      */
     public int getAceCount() {
-        return (int) hand.stream().filter(Card::isAce).count();
+        return aceCount;
     }
 }
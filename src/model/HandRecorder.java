@@ -0,0 +1,71 @@
+package model;
+
+/**
+ * Interfaccia HandRecorder che riceve gli eventi di un round mentre il motore di gioco li
+ * produce: inizio del round, ogni carta distribuita nell'ordine in cui esce dallo shoe, ogni
+ * decisione hit/stand e l'esito di ogni posto.
+ * <p>
+ * I metodi vengono chiamati dal thread che usa il motore e devono costare poco: le
+ * implementazioni non dovrebbero allocare oggetti né fare I/O bloccante per ogni evento.
+ */
+public interface HandRecorder {
+
+    /** Posto usato per le carte del dealer. */
+    int DEALER = -1;
+
+    /** Registratore che ignora tutti gli eventi. */
+    HandRecorder NONE = new HandRecorder() {
+        @Override
+        public long roundStarted(int numSeats, int numDecks) {
+            return 0;
+        }
+
+        @Override
+        public void cardDealt(long round, int seat, int card) {
+        }
+
+        @Override
+        public void decision(long round, int seat, boolean hit) {
+        }
+
+        @Override
+        public void outcome(long round, int seat, Outcome outcome) {
+        }
+    };
+
+    /**
+     * Segnala l'inizio di un round, prima della distribuzione.
+     *
+     * @param numSeats Numero di posti al tavolo.
+     * @param numDecks Numero di mazzi dello shoe.
+     * @return L'identificativo del round, da passare agli eventi successivi.
+     */
+    long roundStarted(int numSeats, int numDecks);
+
+    /**
+     * Segnala una carta uscita dallo shoe.
+     *
+     * @param round Identificativo del round.
+     * @param seat Posto che riceve la carta, oppure {@link #DEALER}.
+     * @param card Codice della carta (vedi {@link Card#getCode()}).
+     */
+    void cardDealt(long round, int seat, int card);
+
+    /**
+     * Segnala una decisione di un posto.
+     *
+     * @param round Identificativo del round.
+     * @param seat Posto che ha deciso.
+     * @param hit true per chiedere carta, false per stare.
+     */
+    void decision(long round, int seat, boolean hit);
+
+    /**
+     * Segnala l'esito di un posto a fine round.
+     *
+     * @param round Identificativo del round.
+     * @param seat Posto valutato.
+     * @param outcome Esito del posto.
+     */
+    void outcome(long round, int seat, Outcome outcome);
+}
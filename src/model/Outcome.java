@@ -0,0 +1,11 @@
+package model;
+
+/**
+ * Esito di una mano del giocatore confrontata con la mano del dealer.
+ */
+public enum Outcome {
+    WIN,  // il giocatore batte il dealer o il dealer sballa
+    LOSS, // il dealer ha un punteggio più alto
+    TIE,  // stesso punteggio, entrambi entro 21
+    BUST  // il giocatore ha superato 21
+}
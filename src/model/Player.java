@@ -1,21 +1,22 @@
 package model;
 
-import java.util.Observable;
-import view.GameMenu;
+import log.GameEvent;
+import log.GameLog;
+import log.Level;
 
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 
-@SuppressWarnings("deprecation")
-public class Player extends Observable {
+
+public class Player {
     
-    private Deck deck;       
-    private Hand dealer;   
-    private Hand player1;      
+    private GameEngine engine; // motore del round in corso
+    private boolean counted;   // se l'esito del round in corso va nelle statistiche: falso per i round rigiocati
+    private final EventBus<GameState> events = new EventBus<>(); // notifica lo stato del round agli iscritti
 
-    private static int gamesPlayed = 0;  
-    private static int gamesWon = 0;    
-    private static int gamesLost = 0;    
+    private volatile PlayerStats stats = new PlayerStats(); // statistiche dell'utente che gioca in questa finestra, sostituite dall'EDT al login
+    private String playerName;
 
-    private Card hiddenCard; 
     private static Player instance;
     
     private Player() { }
@@ -33,90 +34,80 @@ public class Player extends Observable {
     }
     
     /**
-     * Inizializza il gioco impostando i giocatori, la carta nascosta e il mazzo.
+     * Inizializza il gioco con il round appena distribuito dal motore di gioco.
      *
-     * @param dealer Mano del dealer.
-     * @param player1 Mano del giocatore umano.
-     * @param bot1 Mano del bot 1.
-     * @param bot2 Mano del bot 2.
-     * @param hiddenCard Carta nascosta del dealer.
-     * @param deck Il mazzo di carte.
+     * @param engine Il motore di gioco, con il round già avviato.
      */
-    public void initializeGame(Hand dealer, Hand player1, Card hiddenCard, Deck deck) {
-        this.dealer = dealer;
-        this.player1 = player1;
-        this.hiddenCard = hiddenCard;
-        this.deck = deck;
-        setChanged();
-        notifyObservers();
+    public void initializeGame(GameEngine engine) {
+        initializeGame(engine, true);
+    }
+
+    /**
+     * Inizializza il gioco con il round appena distribuito dal motore di gioco.
+     *
+     * @param engine Il motore di gioco, con il round già avviato.
+     * @param counted false per un round rigiocato, il cui esito viene mostrato ma non entra nelle statistiche.
+     */
+    public void initializeGame(GameEngine engine, boolean counted) {
+        this.engine = engine;
+        this.counted = counted;
+        if (counted && engine.isRoundOver()) {
+            stats.record(engine.result()); // 21 con le carte iniziali: il round è già concluso
+        }
+        events.publish(engine.snapshot());
     }
     
     /**
      * Esegue l'azione di "hit" per il giocatore umano, aggiungendo una carta alla sua mano.
+     * Se il giocatore raggiunge o supera 21 il dealer gioca e il round si conclude.
      */
     public void playerHit() {
-        player1.addToHand(deck.drawCard());  
-        if (player1.getAceCount() > 0 && player1.getSum() > 21) {
-            player1.getSum();
+        GameState state = engine.hit();
+        if (counted && state.isRoundOver()) {
+            stats.record(state.getOutcome());
         }
 
-        setChanged();
-        notifyObservers();
-        System.out.println("Player hit: " + player1.getHand());
+        events.publish(state);
+        GameLog.hand(Level.INFO, GameEvent.HIT, 0, getPlayer1());
     }
     
     /**
-     * Simula il turno del dealer, pescando carte fino a quando il valore della mano non raggiunge 17 o più.
+     * Esegue il turno del dealer, che pesca carte fino a quando il valore della mano non raggiunge 17 o più.
      */
     public void dealerTurn() {
-        while (dealer.getSum() < 17) {
-            dealer.addToHand(deck.drawCard());
-            if (dealer.getAceCount() > 0 && dealer.getSum() > 21) {
-                dealer.getSum();
-            }
+        GameState state = engine.stand();
+        if (counted) {
+            stats.record(state.getOutcome());
         }
-        setChanged();
-        notifyObservers();
-        System.out.println("Dealer turn complete: " + player1.getHand());
+        events.publish(state);
+        GameLog.hand(Level.INFO, GameEvent.DEALER_TURN, HandRecorder.DEALER, getDealer());
     }
     
-    /**
-     * Simula il turno del bot 1, pescando carte fino a quando il valore della mano non raggiunge 17 o più.
-     */
-    
-    
-    /**
-     * Simula il turno del bot 2, pescando carte fino a quando il valore della mano non raggiunge 17 o più.
-     */
-    
     /**
      * Determina il vincitore del gioco in base ai valori delle mani dei giocatori e del dealer.
      *
      * @return Un messaggio che indica il risultato del gioco.
      */
     public String determineWinner() {
-        int playerSum = player1.getSum();
-        int dealerSum = dealer.getSum();
-
-        boolean playerWins = playerSum <= 21 && (playerSum > dealerSum || dealerSum > 21);
-        if (playerWins) {
-        	incrementGamesWon();
-        } else {
-        	incrementGamesLost();
-        }
-       
-
-        boolean tiePlayer = playerSum == dealerSum && playerSum <= 21;
-        
+        return determineWinner(engine.result()); // le statistiche sono già state registrate a fine round
+    }
 
+    /**
+     * Compone il messaggio del vincitore per un esito già noto, ad esempio quello di uno stato
+     * ricevuto dall'interfaccia, senza leggere il motore di gioco.
+     *
+     * @param outcome L'esito del round per il giocatore.
+     * @return Il messaggio del vincitore.
+     */
+    public String determineWinner(Outcome outcome) {
         StringBuilder result = new StringBuilder();
 
-        if (tiePlayer) {
-            result.append(GameMenu.playerName).append(" tied with the dealer. ");
-        } else if (playerWins) {
-            result.append(GameMenu.playerName).append(" you Win!!. ");
+        if (outcome == Outcome.TIE) {
+            result.append(playerName).append(" tied with the dealer. ");
+        } else if (outcome == Outcome.WIN) {
+            result.append(playerName).append(" you Win!!. ");
         } else {
-            result.append(GameMenu.playerName).append(" you Lost!!. ");
+            result.append(playerName).append(" you Lost!!. ");
         }
 
         
@@ -127,13 +118,75 @@ public class Player extends Observable {
         return result.toString();
     }
     
+    /**
+     * Distribuisce le carte iniziali: prima la carta nascosta e la carta visibile del dealer,
+     * poi due carte a ciascuna mano, un giro alla volta.
+     *
+     * @param deck Il mazzo da cui pescare.
+     * @param dealer Mano del dealer.
+     * @param hands Mani dei giocatori, nell'ordine in cui ricevono le carte.
+     * @return La carta nascosta del dealer.
+     */
+    public static Card dealInitialHands(Deck deck, Hand dealer, Hand... hands) {
+        Card hiddenCard = deck.drawCard(); // Estrae una carta per nasconderla
+        dealer.addToHand(hiddenCard);
+        dealer.addToHand(deck.drawCard());
+        for (int i = 0; i < 2; i++) {
+            for (Hand hand : hands) {
+                hand.addToHand(deck.drawCard());
+            }
+        }
+        return hiddenCard;
+    }
+
+    /**
+     * Gioca la mano del dealer: pesca carte fino a quando il valore della mano non raggiunge 17 o più.
+     *
+     * @param dealer Mano del dealer.
+     * @param deck Il mazzo da cui pescare.
+     */
+    public static void playDealerHand(Hand dealer, Deck deck) {
+        while (dealer.getSum() < 17) {
+            dealer.addToHand(deck.drawCard());
+        }
+    }
+
+    /**
+     * Confronta la mano di un giocatore con quella del dealer.
+     *
+     * @param hand Mano del giocatore.
+     * @param dealer Mano del dealer.
+     * @return L'esito della mano del giocatore.
+     */
+    public static Outcome evaluate(Hand hand, Hand dealer) {
+        return evaluate(hand.getSum(), dealer.getSum());
+    }
+
+    /**
+     * Confronta il punteggio di un giocatore con quello del dealer.
+     *
+     * @param playerSum Punteggio del giocatore.
+     * @param dealerSum Punteggio del dealer.
+     * @return L'esito della mano del giocatore.
+     */
+    public static Outcome evaluate(int playerSum, int dealerSum) {
+        if (playerSum > 21) {
+            return Outcome.BUST;
+        } else if (playerSum == dealerSum) {
+            return Outcome.TIE;
+        } else if (dealerSum > 21 || playerSum > dealerSum) {
+            return Outcome.WIN;
+        }
+        return Outcome.LOSS;
+    }
+
     /**
      * Restituisce la mano del dealer.
      *
      * @return La mano del dealer.
      */
     public Hand getDealer() {
-        return dealer;
+        return engine.getDealerHand();
     }
 
     /**
@@ -142,22 +195,28 @@ public class Player extends Observable {
      * @return La mano del giocatore umano.
      */
     public Hand getPlayer1() {
-        return player1;
+        return engine.getPlayerHand();
     }
 
     /**
-     * Restituisce la mano del bot 1.
+     * Restituisce la mano di un bot. I bot giocano nel motore di gioco subito dopo la
+     * distribuzione, seguendo la strategia del tavolo.
      *
-     * @return La mano del bot 1.
+     * @param bot Numero del bot, da 1 al numero di posti meno uno.
+     * @return La mano del bot.
      */
-   
+    public Hand getBot(int bot) {
+        return engine.getSeatHand(bot);
+    }
 
     /**
-     * Restituisce la mano del bot 2.
+     * Restituisce il numero di bot al tavolo.
      *
-     * @return La mano del bot 2.
+     * @return Il numero di bot.
      */
-    
+    public int getBotCount() {
+        return engine.getSeatCount() - 1;
+    }
 
     /**
      * Restituisce la carta nascosta del dealer.
@@ -165,16 +224,55 @@ public class Player extends Observable {
      * @return La carta nascosta del dealer.
      */
     public Card getHiddenCard() {
-        return hiddenCard;
+        return engine.getHiddenCard();
     }
     
+    /**
+     * Iscrive un ascoltatore ai cambiamenti di stato del round. Più cambiamenti ravvicinati
+     * vengono consegnati come un solo evento con lo stato più recente.
+     *
+     * @param listener L'ascoltatore.
+     * @param executor L'executor su cui consegnare gli eventi, ad esempio SwingUtilities::invokeLater.
+     * @return L'iscrizione, da chiudere quando l'ascoltatore non serve più.
+     */
+    public EventBus<GameState>.Subscription subscribe(Consumer<GameState> listener, Executor executor) {
+        return events.subscribe(listener, executor);
+    }
+
+    /**
+     * Imposta il nome del giocatore usato nei messaggi di fine partita.
+     *
+     * @param playerName Il nome del giocatore.
+     */
+    public void setPlayerName(String playerName) {
+        this.playerName = playerName;
+    }
+
+    /**
+     * Imposta le statistiche dell'utente che ha effettuato l'accesso.
+     *
+     * @param stats Le statistiche dell'utente.
+     */
+    public void setStats(PlayerStats stats) {
+        this.stats = stats;
+    }
+
+    /**
+     * Restituisce le statistiche del giocatore.
+     *
+     * @return Le statistiche del giocatore.
+     */
+    public PlayerStats getStats() {
+        return stats;
+    }
+
     /**
      * Restituisce il numero di giochi giocati.
      *
      * @return Il numero di giochi giocati.
      */
     public static int getGamesPlayed() {
-        return gamesPlayed;
+        return getInstance().stats.getGamesPlayed();
     }
     
     /**
@@ -183,7 +281,7 @@ public class Player extends Observable {
      * @return Il numero di giochi vinti.
      */
     public static int getGamesWon() {
-        return gamesWon;
+        return getInstance().stats.getGamesWon();
     }
     
     /**
@@ -192,37 +290,35 @@ public class Player extends Observable {
      * @return Il numero di giochi persi.
      */
     public static int getGamesLost() {
-        return gamesLost;
+        return getInstance().stats.getGamesLost();
     }
     
     /**
      * Incrementa il numero di giochi giocati.
      */
     public static void incrementGamesPlayed() {
-        gamesPlayed++;
+        getInstance().stats.incrementGamesPlayed();
     }
     
     /**
      * Incrementa il numero di giochi vinti.
      */
     public static void incrementGamesWon() {
-        gamesWon++;
+        getInstance().stats.incrementGamesWon();
     }
     
     /**
      * Incrementa il numero di giochi persi.
      */
     public static void incrementGamesLost() {
-        gamesLost++;
+        getInstance().stats.incrementGamesLost();
     }
     
     /**
      * Resetta le statistiche del gioco.
      */
     public static void resetGame() {
-        gamesPlayed = 0;
-        gamesLost = 0;
-        gamesWon = 0;
+        getInstance().stats.reset();
     }
 
     
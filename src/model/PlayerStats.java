@@ -0,0 +1,99 @@
+package model;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe PlayerStats che contiene le statistiche di gioco di un utente: partite giocate,
+ * vinte e perse. I contatori sono atomici, quindi lo stesso utente può giocare su più
+ * tavoli contemporaneamente.
+ */
+public class PlayerStats {
+
+    private final AtomicInteger gamesPlayed = new AtomicInteger();
+    private final AtomicInteger gamesWon = new AtomicInteger();
+    private final AtomicInteger gamesLost = new AtomicInteger();
+
+    /**
+     * Registra una partita conclusa. Un pareggio conta come partita persa.
+     *
+     * @param outcome L'esito della partita.
+     */
+    public void record(Outcome outcome) {
+        incrementGamesPlayed();
+        if (outcome == Outcome.WIN) {
+            incrementGamesWon();
+        } else {
+            incrementGamesLost();
+        }
+    }
+
+    /**
+     * Restituisce il numero di giochi giocati.
+     *
+     * @return Il numero di giochi giocati.
+     */
+    public int getGamesPlayed() {
+        return gamesPlayed.get();
+    }
+
+    /**
+     * Restituisce il numero di giochi vinti.
+     *
+     * @return Il numero di giochi vinti.
+     */
+    public int getGamesWon() {
+        return gamesWon.get();
+    }
+
+    /**
+     * Restituisce il numero di giochi persi.
+     *
+     * @return Il numero di giochi persi.
+     */
+    public int getGamesLost() {
+        return gamesLost.get();
+    }
+
+    /**
+     * Incrementa il numero di giochi giocati.
+     */
+    public void incrementGamesPlayed() {
+        gamesPlayed.incrementAndGet();
+    }
+
+    /**
+     * Incrementa il numero di giochi vinti.
+     */
+    public void incrementGamesWon() {
+        gamesWon.incrementAndGet();
+    }
+
+    /**
+     * Incrementa il numero di giochi persi.
+     */
+    public void incrementGamesLost() {
+        gamesLost.incrementAndGet();
+    }
+
+    /**
+     * Somma valori ai contatori, ad esempio per ripristinare statistiche salvate.
+     *
+     * @param played Partite giocate da aggiungere.
+     * @param won Partite vinte da aggiungere.
+     * @param lost Partite perse da aggiungere.
+     */
+    public void add(int played, int won, int lost) {
+        gamesPlayed.addAndGet(played);
+        gamesWon.addAndGet(won);
+        gamesLost.addAndGet(lost);
+    }
+
+    /**
+     * Azzera le statistiche.
+     */
+    public void reset() {
+        gamesPlayed.set(0);
+        gamesWon.set(0);
+        gamesLost.set(0);
+    }
+}
@@ -0,0 +1,45 @@
+package model;
+
+/**
+ * Interfaccia RoundMetrics che riceve i conteggi di un round dal motore di gioco: round avviati,
+ * decisioni hit/stand ed esiti dei posti.
+ * <p>
+ * Come per {@link HandRecorder}, i metodi vengono chiamati dal thread che usa il motore e devono
+ * costare poco: un contatore da incrementare, senza allocazioni né I/O.
+ */
+public interface RoundMetrics {
+
+    /** Metriche che ignorano tutti gli eventi. */
+    RoundMetrics NONE = new RoundMetrics() {
+        @Override
+        public void roundStarted() {
+        }
+
+        @Override
+        public void decision(boolean hit) {
+        }
+
+        @Override
+        public void outcome(Outcome outcome) {
+        }
+    };
+
+    /**
+     * Segnala l'inizio di un round.
+     */
+    void roundStarted();
+
+    /**
+     * Segnala una decisione di un posto, del giocatore o di un bot.
+     *
+     * @param hit true se il posto ha chiesto carta, false se sta.
+     */
+    void decision(boolean hit);
+
+    /**
+     * Segnala l'esito di un posto a fine round.
+     *
+     * @param outcome Esito del posto.
+     */
+    void outcome(Outcome outcome);
+}
@@ -0,0 +1,466 @@
+package server;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import metrics.GameMetrics;
+import model.Card;
+import model.GameState;
+import store.StatsStore;
+import store.UserStore;
+import util.GameExecutors;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe ApiServer che espone il gioco e le statistiche via HTTP con risposte JSON, usando il
+ * server HTTP incluso nel JDK.
+ * <p>
+ * Endpoint:
+ * <pre>
+ * GET  /api/stats/{nome}            statistiche di un utente (come il menu delle statistiche)
+ * GET  /api/leaderboard?limit=n     classifica per partite vinte
+ * POST /api/login                   corpo "user=...&amp;password=...", apre un tavolo e restituisce il token
+ * POST /api/round/{azione}          azione start, hit, stay o retry; header "Authorization: Bearer token"
+ * POST /api/logout                  chiude il tavolo del token
+ * </pre>
+ * Ogni utente ha al più un token e un tavolo: un nuovo login riusa il tavolo e revoca il token
+ * precedente. I token inattivi da più di {@link #SESSION_IDLE_MILLIS} ms scadono e il loro tavolo
+ * viene chiuso.
+ * <p>
+ * Statistiche e classifica vengono servite da una {@link StatsSnapshot} ricostruita in background
+ * a intervalli regolari, quindi una richiesta non legge file né ordina utenti. Le richieste sono
+ * eseguite sull'executor dei task (virtual thread dove disponibili).
+ */
+public class ApiServer implements AutoCloseable {
+
+    /** Porta predefinita, modificabile con -Dblackjack.httpPort. */
+    public static final int DEFAULT_PORT = Integer.getInteger("blackjack.httpPort", 8080);
+    /** Intervallo di aggiornamento delle statistiche servite, modificabile con -Dblackjack.snapshotMillis. */
+    public static final long SNAPSHOT_MILLIS = Long.getLong("blackjack.snapshotMillis", 500L);
+    /** Inattività dopo la quale un token scade, modificabile con -Dblackjack.sessionIdleMillis. */
+    public static final long SESSION_IDLE_MILLIS = Long.getLong("blackjack.sessionIdleMillis", TimeUnit.MINUTES.toMillis(30));
+
+    static {
+        // Senza TCP_NODELAY il corpo della risposta attende l'ACK ritardato delle intestazioni (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private static final int DEFAULT_LIMIT = 10;
+    private static final int MAX_LIMIT = 1000;
+    private static final int MAX_BODY = 1024;
+
+    private final HttpServer http;
+    private final TableManager tables;
+    private final UserStore users;
+    private final ExecutorService executor;
+    private final ScheduledExecutorService refresher;
+    private final Map<String, Login> sessions = new ConcurrentHashMap<>(); // token -> login
+    private final Map<String, Login> logins = new ConcurrentHashMap<>();   // utente -> login attivo
+    private final SecureRandom random = new SecureRandom();
+    private volatile StatsSnapshot snapshot;
+
+    /**
+     * Costruttore della classe ApiServer. Apre la porta; le richieste vengono servite dopo {@link #start()}.
+     *
+     * @param port Porta TCP, 0 per sceglierne una libera.
+     * @param tables I tavoli del server, con le statistiche degli utenti.
+     * @param users L'archivio degli utenti.
+     * @throws IOException se la porta non può essere aperta.
+     */
+    public ApiServer(int port, TableManager tables, UserStore users) throws IOException {
+        this.tables = tables;
+        this.users = users;
+        this.executor = GameExecutors.newTaskExecutor("http");
+        this.refresher = Executors.newSingleThreadScheduledExecutor(GameExecutors.daemonThreads("stats-snapshot"));
+        this.snapshot = new StatsSnapshot(tables.getAllStats(), DEFAULT_LIMIT);
+
+        http = HttpServer.create(new InetSocketAddress(port), 1024);
+        http.setExecutor(executor);
+        http.createContext("/api/stats/", exchange -> handle(exchange, "GET", this::stats));
+        http.createContext("/api/leaderboard", exchange -> handle(exchange, "GET", this::leaderboard));
+        http.createContext("/api/login", exchange -> handle(exchange, "POST", this::login));
+        http.createContext("/api/round/", exchange -> handle(exchange, "POST", this::round));
+        http.createContext("/api/logout", exchange -> handle(exchange, "POST", this::logout));
+    }
+
+    /**
+     * Avvia il server e l'aggiornamento periodico delle statistiche.
+     */
+    public void start() {
+        refresher.scheduleWithFixedDelay(this::refresh, SNAPSHOT_MILLIS, SNAPSHOT_MILLIS, TimeUnit.MILLISECONDS);
+        long expiry = Math.max(1, Math.min(SESSION_IDLE_MILLIS / 4, TimeUnit.MINUTES.toMillis(1)));
+        refresher.scheduleWithFixedDelay(this::expireSessions, expiry, expiry, TimeUnit.MILLISECONDS);
+        http.start();
+    }
+
+    /**
+     * Restituisce la porta su cui il server è in ascolto.
+     *
+     * @return La porta TCP.
+     */
+    public int getPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Ricostruisce subito la fotografia delle statistiche.
+     */
+    public void refresh() {
+        try {
+            snapshot = new StatsSnapshot(tables.getAllStats(), DEFAULT_LIMIT);
+        } catch (RuntimeException e) {
+            e.printStackTrace(); // si continua a servire la fotografia precedente
+        }
+    }
+
+    /**
+     * Chiude i login inattivi da più di {@link #SESSION_IDLE_MILLIS} ms e i loro tavoli.
+     */
+    public void expireSessions() {
+        long now = System.currentTimeMillis();
+        for (Login login : sessions.values()) {
+            if (now - login.lastAccess > SESSION_IDLE_MILLIS) {
+                end(login);
+            }
+        }
+    }
+
+    /**
+     * Restituisce il numero di token validi.
+     *
+     * @return I token validi.
+     */
+    public int getSessionCount() {
+        return sessions.size();
+    }
+
+    /**
+     * Ferma il server e chiude i tavoli aperti via HTTP.
+     */
+    @Override
+    public void close() {
+        http.stop(0);
+        refresher.shutdownNow();
+        executor.shutdownNow();
+        for (Login login : sessions.values()) {
+            end(login);
+        }
+    }
+
+    /**
+     * GET /api/stats/{nome}
+     */
+    private Response stats(HttpExchange exchange) {
+        String user = URLDecoder.decode(exchange.getRequestURI().getRawPath().substring("/api/stats/".length()), StandardCharsets.UTF_8);
+        byte[] json = snapshot.user(user);
+        return json != null ? new Response(200, json) : Response.error(404, "unknown user " + user);
+    }
+
+    /**
+     * GET /api/leaderboard?limit=n
+     */
+    private Response leaderboard(HttpExchange exchange) {
+        String limit = query(exchange.getRequestURI().getRawQuery()).get("limit");
+        int n = limit == null ? DEFAULT_LIMIT : Math.max(0, Math.min(MAX_LIMIT, Integer.parseInt(limit)));
+        return new Response(200, snapshot.leaderboard(n));
+    }
+
+    /**
+     * POST /api/login con corpo "user=...&amp;password=..."
+     */
+    private Response login(HttpExchange exchange) throws IOException {
+        Map<String, String> form = query(readBody(exchange));
+        String user = form.get("user");
+        String password = form.get("password");
+        if (user == null || password == null || !users.authenticate(user, password)) {
+            return Response.error(401, "invalid credentials");
+        }
+        byte[] bytes = new byte[18];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        // Un solo tavolo per utente: il nuovo login lo riprende e revoca il token precedente
+        Login login = logins.compute(user, (name, previous) -> {
+            if (previous != null) {
+                sessions.remove(previous.token);
+            }
+            Login next = new Login(token, name, previous != null ? previous.table : tables.openTable(name));
+            sessions.put(token, next);
+            return next;
+        });
+        return new Response(200, "{\"token\":" + quote(token) + ",\"table\":" + login.table.getId() + "}");
+    }
+
+    /**
+     * POST /api/round/{azione}
+     */
+    private Response round(HttpExchange exchange) {
+        Login login = sessions.get(token(exchange));
+        if (login == null) {
+            return Response.error(401, "login required");
+        }
+        login.lastAccess = System.currentTimeMillis();
+        Table table = login.table;
+        String action = exchange.getRequestURI().getPath().substring("/api/round/".length());
+        switch (action) {
+            case "start":
+                return new Response(200, state(table.startRound()));
+            case "hit":
+                return new Response(200, state(table.hit()));
+            case "stay":
+                return new Response(200, state(table.stand()));
+            case "retry":
+                return new Response(200, state(table.retry()));
+            default:
+                return Response.error(404, "unknown action " + action);
+        }
+    }
+
+    /**
+     * POST /api/logout
+     */
+    private Response logout(HttpExchange exchange) {
+        Login login = sessions.get(token(exchange));
+        if (login == null) {
+            return Response.error(401, "login required");
+        }
+        end(login);
+        return new Response(200, "{\"ok\":true}");
+    }
+
+    /**
+     * Revoca il token di un login e, se è ancora il login attivo dell'utente, chiude il suo tavolo.
+     *
+     * @param login Il login da chiudere.
+     */
+    private void end(Login login) {
+        sessions.remove(login.token);
+        if (logins.remove(login.user, login)) {
+            tables.closeTable(login.table.getId());
+        }
+    }
+
+    /**
+     * Esegue un endpoint e invia la risposta; gli errori del gioco diventano risposte 4xx.
+     *
+     * @param exchange La richiesta.
+     * @param method Il metodo HTTP ammesso.
+     * @param endpoint L'endpoint.
+     * @throws IOException se la risposta non può essere inviata.
+     */
+    private void handle(HttpExchange exchange, String method, Endpoint endpoint) throws IOException {
+        Response response;
+        try {
+            if (!exchange.getRequestMethod().equals(method)) {
+                response = Response.error(405, method + " required");
+            } else {
+                response = endpoint.serve(exchange);
+            }
+        } catch (IllegalStateException e) {
+            response = Response.error(409, e.getMessage());
+        } catch (IllegalArgumentException e) {
+            response = Response.error(400, e.getMessage());
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            response = Response.error(500, "internal error");
+        }
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(response.status, response.body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response.body);
+        }
+    }
+
+    /**
+     * Legge il corpo di una richiesta, fino a {@value #MAX_BODY} byte.
+     *
+     * @param exchange La richiesta.
+     * @return Il corpo come testo.
+     * @throws IOException se il corpo non può essere letto.
+     */
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY + 1);
+            if (body.length > MAX_BODY) {
+                throw new IllegalArgumentException("request body too large");
+            }
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Restituisce il token dell'header Authorization.
+     *
+     * @param exchange La richiesta.
+     * @return Il token, oppure una stringa vuota se manca.
+     */
+    private static String token(HttpExchange exchange) {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        return header != null && header.startsWith("Bearer ") ? header.substring(7).trim() : "";
+    }
+
+    /**
+     * Interpreta una query string o un corpo application/x-www-form-urlencoded.
+     *
+     * @param query Il testo da interpretare, anche null.
+     * @return I parametri.
+     */
+    private static Map<String, String> query(String query) {
+        Map<String, String> params = new HashMap<>();
+        if (query == null || query.isEmpty()) {
+            return params;
+        }
+        for (String pair : query.split("&")) {
+            int eq = pair.indexOf('=');
+            if (eq > 0) {
+                params.put(URLDecoder.decode(pair.substring(0, eq), StandardCharsets.UTF_8),
+                        URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return params;
+    }
+
+    /**
+     * Scrive lo stato di un round in JSON; finché il round è in corso la carta nascosta del
+     * dealer è "??" e il punteggio del dealer è quello della carta scoperta.
+     *
+     * @param state Lo stato del round.
+     * @return Il JSON dello stato.
+     */
+    static String state(GameState state) {
+        StringBuilder sb = new StringBuilder("{\"player\":{\"cards\":");
+        cards(sb, state.getPlayerCards(), false);
+        sb.append(",\"sum\":").append(state.getPlayerSum()).append("},\"dealer\":{\"cards\":");
+        cards(sb, state.getDealerCards(), !state.isRoundOver());
+        sb.append(",\"sum\":").append(state.getVisibleDealerSum()).append("},\"roundOver\":").append(state.isRoundOver())
+                .append(",\"outcome\":").append(state.isRoundOver() ? quote(state.getOutcome().name()) : "null").append('}');
+        return sb.toString();
+    }
+
+    /**
+     * Aggiunge un array JSON di carte.
+     *
+     * @param sb Il buffer di destinazione.
+     * @param cards Le carte.
+     * @param hideFirst Se la prima carta va nascosta.
+     */
+    private static void cards(StringBuilder sb, List<Card> cards, boolean hideFirst) {
+        sb.append('[');
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append('"').append(hideFirst && i == 0 ? "??" : cards.get(i).toString()).append('"');
+        }
+        sb.append(']');
+    }
+
+    /**
+     * Restituisce una stringa JSON con i caratteri speciali protetti.
+     *
+     * @param value Il testo.
+     * @return Il testo tra virgolette.
+     */
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                sb.append('\\').append(c);
+            } else if (c < 0x20) {
+                sb.append(String.format("\\u%04x", (int) c));
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.append('"').toString();
+    }
+
+    /**
+     * Avvia il server HTTP da riga di comando, con gli utenti e le statistiche della cartella di lavoro
+     * ("users.db" e "stats.log"). Gli archivi si aprono in un solo processo per volta: se il gioco
+     * o un altro server li tiene aperti nella stessa cartella il server termina subito con un errore.
+     *
+     * @param args [porta] [mazzi]
+     * @throws IOException se la porta non può essere aperta.
+     * @throws IllegalStateException se gli archivi sono in uso da un altro processo.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int numDecks = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        TableManager tables = new TableManager(numDecks, StatsStore.getDefault());
+        ApiServer server = new ApiServer(port, tables, UserStore.getDefault());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            tables.shutdown();
+            StatsStore.closeDefault();
+            GameMetrics.stopReporter();
+        }, "shutdown"));
+        GameMetrics.startReporter();
+        server.start();
+        System.out.println("Blackjack HTTP API listening on port " + server.getPort());
+    }
+
+    /**
+     * Login via HTTP: il token, l'utente e il suo tavolo.
+     */
+    private static class Login {
+
+        private final String token;
+        private final String user;
+        private final Table table;
+        private volatile long lastAccess = System.currentTimeMillis();
+
+        Login(String token, String user, Table table) {
+            this.token = token;
+            this.user = user;
+            this.table = table;
+        }
+    }
+
+    /**
+     * Endpoint HTTP.
+     */
+    private interface Endpoint {
+        Response serve(HttpExchange exchange) throws IOException;
+    }
+
+    /**
+     * Risposta di un endpoint: codice di stato e corpo JSON.
+     */
+    private static class Response {
+
+        private final int status;
+        private final byte[] body;
+
+        Response(int status, byte[] body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        Response(int status, String body) {
+            this(status, body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Response error(int status, String message) {
+            return new Response(status, "{\"error\":" + quote(message) + "}");
+        }
+    }
+}
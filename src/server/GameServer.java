@@ -0,0 +1,416 @@
+package server;
+
+import metrics.GameMetrics;
+import store.StatsStore;
+import store.UserStore;
+import util.GameExecutors;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Classe GameServer che permette di giocare da remoto via TCP, con il protocollo a righe
+ * descritto in {@link Session}. Ogni connessione ha il proprio tavolo dopo il login.
+ * <p>
+ * Un solo thread gestisce tutte le connessioni con un {@link Selector} non bloccante. I comandi
+ * vengono eseguiti sull'executor dei task (il login, ad esempio, calcola PBKDF2 e non deve fermare
+ * il selettore), uno alla volta per connessione e nell'ordine di arrivo; la risposta torna al
+ * thread del selettore, che la scrive.
+ * <p>
+ * Una connessione inattiva occupa solo il canale e pochi campi: il buffer di lettura è condiviso
+ * dal thread del selettore e una connessione conserva byte propri solo per una riga ricevuta a
+ * metà ({@value #MAX_LINE} byte al massimo) o per una risposta non ancora inviata.
+ * <p>
+ * Finché una risposta non è stata inviata del tutto il server smette di leggere e di eseguire i
+ * comandi di quella connessione: un client che invia comandi senza leggere le risposte resta
+ * fermo invece di accumulare risposte in memoria.
+ */
+public class GameServer implements AutoCloseable {
+
+    /** Porta predefinita, modificabile con -Dblackjack.port. */
+    public static final int DEFAULT_PORT = Integer.getInteger("blackjack.port", 4000);
+
+    private static final int MAX_LINE = 256;         // lunghezza massima di una riga di comando
+    private static final int MAX_PENDING_LINES = 16; // comandi in attesa per connessione
+
+    private final TableManager tables;
+    private final UserStore users;
+    private final ExecutorService executor;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final ByteBuffer readBuffer = ByteBuffer.allocateDirect(16 * 1024); // usato solo dal thread del selettore
+    private final Queue<Connection> completed = new ConcurrentLinkedQueue<>();  // comandi eseguiti, da rispondere
+    private final Thread loop;
+
+    private volatile boolean running = true;
+    private volatile int connectionCount;
+
+    /**
+     * Costruttore della classe GameServer. Apre la porta; le connessioni vengono accettate dopo {@link #start()}.
+     *
+     * @param port Porta TCP, 0 per sceglierne una libera.
+     * @param tables I tavoli del server.
+     * @param users L'archivio degli utenti.
+     * @throws IOException se la porta non può essere aperta.
+     */
+    public GameServer(int port, TableManager tables, UserStore users) throws IOException {
+        this.tables = tables;
+        this.users = users;
+        this.executor = GameExecutors.newTaskExecutor("server");
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        this.loop = new Thread(this::run, "game-server");
+    }
+
+    /**
+     * Avvia il thread del selettore.
+     */
+    public void start() {
+        loop.start();
+    }
+
+    /**
+     * Restituisce la porta su cui il server è in ascolto.
+     *
+     * @return La porta TCP.
+     */
+    public int getPort() {
+        return server.socket().getLocalPort();
+    }
+
+    /**
+     * Restituisce il numero di connessioni aperte.
+     *
+     * @return Le connessioni aperte.
+     */
+    public int getConnectionCount() {
+        return connectionCount;
+    }
+
+    /**
+     * Ferma il server e chiude tutte le connessioni e i relativi tavoli.
+     */
+    @Override
+    public void close() {
+        running = false;
+        selector.wakeup();
+        try {
+            loop.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        executor.shutdownNow();
+    }
+
+    /**
+     * Ciclo del selettore: accetta le connessioni, legge i comandi e scrive le risposte.
+     */
+    private void run() {
+        try {
+            while (running) {
+                selector.select();
+                Connection done;
+                while ((done = completed.poll()) != null) {
+                    complete(done);
+                }
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    try {
+                        if (key.isAcceptable()) {
+                            accept();
+                        } else {
+                            Connection connection = (Connection) key.attachment();
+                            if (key.isReadable()) {
+                                read(connection);
+                            }
+                            if (key.isValid() && key.isWritable()) {
+                                write(connection);
+                                dispatch(connection); // la risposta è partita: si passa al comando successivo
+                            }
+                        }
+                    } catch (IOException e) {
+                        if (key.attachment() != null) {
+                            close((Connection) key.attachment()); // connessione interrotta dal client
+                        }
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        } finally {
+            for (SelectionKey key : selector.keys()) {
+                if (key.attachment() != null) {
+                    close((Connection) key.attachment());
+                }
+            }
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * Accetta le connessioni in attesa.
+     *
+     * @throws IOException se l'accettazione fallisce.
+     */
+    private void accept() throws IOException {
+        SocketChannel channel;
+        while ((channel = server.accept()) != null) {
+            channel.configureBlocking(false);
+            channel.socket().setTcpNoDelay(true);
+            Connection connection = new Connection(channel, new Session(tables, users));
+            connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+            connectionCount++;
+        }
+    }
+
+    /**
+     * Legge i dati disponibili su una connessione e ne estrae le righe complete.
+     *
+     * @param connection La connessione.
+     * @throws IOException se la lettura fallisce.
+     */
+    private void read(Connection connection) throws IOException {
+        readBuffer.clear();
+        int read = connection.channel.read(readBuffer);
+        if (read < 0) {
+            close(connection);
+            return;
+        }
+        readBuffer.flip();
+        while (readBuffer.hasRemaining()) {
+            byte b = readBuffer.get();
+            if (b == '\n') {
+                connection.addLine();
+            } else if (b != '\r' && !connection.append(b)) {
+                connection.reply("ERR line too long");
+                connection.closing = true;
+                write(connection);
+                return;
+            }
+        }
+        if (connection.lines != null && connection.lines.size() > MAX_PENDING_LINES) {
+            close(connection); // il client invia comandi senza attendere le risposte
+            return;
+        }
+        dispatch(connection);
+    }
+
+    /**
+     * Invia all'executor il prossimo comando della connessione, se non ce n'è già uno in esecuzione.
+     *
+     * @param connection La connessione.
+     */
+    private void dispatch(Connection connection) {
+        if (connection.busy || connection.closing || connection.out != null
+                || connection.lines == null || connection.lines.isEmpty()) {
+            return; // un comando alla volta, e solo dopo aver inviato la risposta precedente
+        }
+        String line = connection.lines.poll();
+        if (connection.lines.isEmpty()) {
+            connection.lines = null; // una connessione inattiva non conserva la coda
+        }
+        connection.busy = true;
+        executor.execute(() -> {
+            String response;
+            try {
+                response = connection.session.handle(line);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                response = "ERR internal error";
+            }
+            connection.response = response;
+            completed.add(connection);
+            selector.wakeup();
+        });
+    }
+
+    /**
+     * Invia la risposta di un comando eseguito e passa al comando successivo.
+     *
+     * @param connection La connessione.
+     */
+    private void complete(Connection connection) {
+        connection.busy = false;
+        if (!connection.channel.isOpen()) {
+            connection.session.close(); // connessione chiusa mentre il comando era in esecuzione
+            return;
+        }
+        String response = connection.response;
+        connection.response = null;
+        connection.reply(response);
+        if (response.equals("OK BYE")) {
+            connection.closing = true;
+        }
+        try {
+            write(connection);
+        } catch (IOException e) {
+            close(connection);
+            return;
+        }
+        dispatch(connection);
+    }
+
+    /**
+     * Scrive la risposta in sospeso; se il socket non accetta tutto, smette di leggere dalla
+     * connessione e attende che sia scrivibile.
+     *
+     * @param connection La connessione.
+     * @throws IOException se la scrittura fallisce.
+     */
+    private void write(Connection connection) throws IOException {
+        if (connection.out != null) {
+            connection.channel.write(connection.out);
+            if (connection.out.hasRemaining()) {
+                connection.key.interestOps(SelectionKey.OP_WRITE); // la lettura riprende quando la risposta è partita
+                return;
+            }
+            connection.out = null;
+            connection.key.interestOps(SelectionKey.OP_READ);
+        }
+        if (connection.closing) {
+            close(connection);
+        }
+    }
+
+    /**
+     * Chiude una connessione e, se non ha comandi in esecuzione, il suo tavolo.
+     *
+     * @param connection La connessione.
+     */
+    private void close(Connection connection) {
+        if (!connection.channel.isOpen()) {
+            return;
+        }
+        connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        connectionCount--;
+        if (!connection.busy) {
+            connection.session.close();
+        }
+    }
+
+    /**
+     * Avvia il server da riga di comando, con gli utenti e le statistiche della cartella di lavoro
+     * ("users.db" e "stats.log"). Gli archivi si aprono in un solo processo per volta: se il gioco
+     * o un altro server li tiene aperti nella stessa cartella il server termina subito con un errore.
+     *
+     * @param args [porta] [mazzi]
+     * @throws IOException se la porta non può essere aperta.
+     * @throws IllegalStateException se gli archivi sono in uso da un altro processo.
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int numDecks = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+
+        TableManager tables = new TableManager(numDecks, StatsStore.getDefault());
+        GameServer server = new GameServer(port, tables, UserStore.getDefault());
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            tables.shutdown();
+            StatsStore.closeDefault();
+            GameMetrics.stopReporter();
+        }, "shutdown"));
+        GameMetrics.startReporter();
+        server.start();
+        System.out.println("Blackjack server listening on port " + server.getPort());
+    }
+
+    /**
+     * Stato di una connessione, usato solo dal thread del selettore (tranne {@link #response}).
+     */
+    private static class Connection {
+
+        private final SocketChannel channel;
+        private final Session session;
+        private SelectionKey key;
+
+        private byte[] partial;         // riga ricevuta a metà, creata solo se serve
+        private int partialLength;
+        private Queue<String> lines;    // comandi ricevuti e non ancora eseguiti, creata solo se serve
+        private ByteBuffer out;         // risposta non ancora inviata
+        private boolean busy;           // un comando è in esecuzione sull'executor
+        private boolean closing;        // chiudere dopo aver inviato la risposta
+        private volatile String response;
+
+        Connection(SocketChannel channel, Session session) {
+            this.channel = channel;
+            this.session = session;
+        }
+
+        /**
+         * Aggiunge un byte alla riga in lettura.
+         *
+         * @param b Il byte.
+         * @return false se la riga supera la lunghezza massima.
+         */
+        boolean append(byte b) {
+            if (partial == null) {
+                partial = new byte[32];
+            } else if (partialLength == partial.length) {
+                if (partialLength == MAX_LINE) {
+                    return false;
+                }
+                partial = Arrays.copyOf(partial, Math.min(MAX_LINE, partialLength * 2));
+            }
+            partial[partialLength++] = b;
+            return true;
+        }
+
+        /**
+         * Conclude la riga in lettura e la mette in coda; libera il buffer della riga.
+         */
+        void addLine() {
+            if (lines == null) {
+                lines = new ArrayDeque<>(4);
+            }
+            lines.add(partial == null ? "" : new String(partial, 0, partialLength, StandardCharsets.US_ASCII));
+            partial = null;
+            partialLength = 0;
+        }
+
+        /**
+         * Accoda una riga di risposta.
+         *
+         * @param line La risposta, senza terminatore.
+         */
+        void reply(String line) {
+            byte[] bytes = (line + "\n").getBytes(StandardCharsets.US_ASCII);
+            if (out == null) {
+                out = ByteBuffer.wrap(bytes);
+            } else {
+                ByteBuffer joined = ByteBuffer.allocate(out.remaining() + bytes.length);
+                joined.put(out).put(bytes).flip();
+                out = joined;
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package server;
+
+import model.Card;
+import model.GameState;
+import store.UserStore;
+
+import java.util.List;
+
+/**
+ * Classe Session che interpreta i comandi di una connessione al {@link GameServer}.
+ * <p>
+ * Il protocollo è a righe di testo ASCII, una richiesta e una risposta per riga:
+ * <pre>
+ * REGISTER nome password   -&gt; OK REGISTERED | ERR ...
+ * LOGIN nome password      -&gt; OK WELCOME nome | ERR ...
+ * START                    -&gt; STATE ...  (errore se un round è in corso)
+ * HIT                      -&gt; STATE ...
+ * STAY                     -&gt; STATE ...
+ * RETRY                    -&gt; STATE ...  (abbandona il round in corso)
+ * QUIT                     -&gt; OK BYE, poi la connessione viene chiusa
+ * </pre>
+ * Lo stato ha la forma "STATE carte punteggio carte_dealer punteggio_dealer esito", ad esempio
+ * "STATE 10-H,3-C 13 ??,J-H 10 PLAYING": finché il round è in corso la carta nascosta del
+ * dealer è "??" e il punteggio del dealer è quello della carta scoperta.
+ * <p>
+ * Dopo il login ogni connessione ha il proprio tavolo, chiuso alla disconnessione.
+ */
+class Session {
+
+    private final TableManager tables;
+    private final UserStore users;
+
+    private String user;
+    private Table table;
+
+    /**
+     * Costruttore della classe Session.
+     *
+     * @param tables I tavoli del server.
+     * @param users L'archivio degli utenti.
+     */
+    Session(TableManager tables, UserStore users) {
+        this.tables = tables;
+        this.users = users;
+    }
+
+    /**
+     * Esegue un comando e restituisce la risposta.
+     *
+     * @param line La riga ricevuta, senza terminatore.
+     * @return La riga di risposta, senza terminatore.
+     */
+    String handle(String line) {
+        String[] words = line.trim().split("\\s+");
+        String command = words[0].toUpperCase();
+        try {
+            switch (command) {
+                case "REGISTER":
+                    requireArgs(words, 3);
+                    return users.register(words[1], words[2]) ? "OK REGISTERED" : "ERR user already exists";
+                case "LOGIN":
+                    requireArgs(words, 3);
+                    return login(words[1], words[2]);
+                case "START":
+                    return state(requireTable().startRound());
+                case "HIT":
+                    return state(requireTable().hit());
+                case "STAY":
+                    return state(requireTable().stand());
+                case "RETRY":
+                    return state(requireTable().retry());
+                case "QUIT":
+                    return "OK BYE";
+                default:
+                    return "ERR unknown command " + command;
+            }
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return "ERR " + e.getMessage();
+        }
+    }
+
+    /**
+     * Chiude il tavolo della sessione.
+     */
+    void close() {
+        if (table != null) {
+            tables.closeTable(table.getId());
+            table = null;
+        }
+    }
+
+    /**
+     * Restituisce il nome dell'utente autenticato.
+     *
+     * @return Il nome dell'utente, oppure null prima del login.
+     */
+    String getUser() {
+        return user;
+    }
+
+    /**
+     * Autentica l'utente e gli apre un tavolo.
+     *
+     * @param name Nome dell'utente.
+     * @param password Password dell'utente.
+     * @return La risposta al comando.
+     */
+    private String login(String name, String password) {
+        if (user != null) {
+            return "ERR already logged in as " + user;
+        }
+        if (!users.authenticate(name, password)) {
+            return "ERR invalid credentials";
+        }
+        user = name;
+        table = tables.openTable(name);
+        return "OK WELCOME " + name;
+    }
+
+    /**
+     * Restituisce il tavolo della sessione.
+     *
+     * @return Il tavolo.
+     * @throws IllegalStateException se l'utente non ha ancora effettuato il login.
+     */
+    private Table requireTable() {
+        if (table == null) {
+            throw new IllegalStateException("login required");
+        }
+        return table;
+    }
+
+    /**
+     * Verifica il numero di parole di un comando.
+     *
+     * @param words Le parole del comando.
+     * @param count Il numero di parole richiesto, comando compreso.
+     * @throws IllegalArgumentException se il numero non corrisponde.
+     */
+    private static void requireArgs(String[] words, int count) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("usage: " + words[0].toUpperCase() + " name password");
+        }
+    }
+
+    /**
+     * Scrive lo stato di un round nel formato del protocollo.
+     *
+     * @param state Lo stato del round.
+     * @return La riga di stato.
+     */
+    static String state(GameState state) {
+        StringBuilder sb = new StringBuilder("STATE ");
+        appendCards(sb, state.getPlayerCards(), false);
+        sb.append(' ').append(state.getPlayerSum()).append(' ');
+        appendCards(sb, state.getDealerCards(), !state.isRoundOver());
+        sb.append(' ').append(state.getVisibleDealerSum()).append(' ');
+        sb.append(state.isRoundOver() ? state.getOutcome().name() : "PLAYING");
+        return sb.toString();
+    }
+
+    /**
+     * Aggiunge una lista di carte separate da virgole.
+     *
+     * @param sb Il buffer di destinazione.
+     * @param cards Le carte.
+     * @param hideFirst Se la prima carta va nascosta.
+     */
+    private static void appendCards(StringBuilder sb, List<Card> cards, boolean hideFirst) {
+        for (int i = 0; i < cards.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(hideFirst && i == 0 ? "??" : cards.get(i).toString());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package server;
+
+import model.PlayerStats;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Classe StatsSnapshot che contiene una fotografia immutabile delle statistiche di tutti gli
+ * utenti, già convertite nelle risposte JSON di {@link ApiServer}.
+ * <p>
+ * La fotografia viene ricostruita a intervalli regolari; le richieste leggono solo byte già
+ * pronti, senza ordinare, formattare o toccare i file delle statistiche.
+ */
+final class StatsSnapshot {
+
+    private static final int LEVEL_WINS = 10; // vittorie per livello, come nel menu delle statistiche
+
+    private final Map<String, byte[]> users;
+    private final List<String> ranking;       // voce JSON di ogni utente, dal primo all'ultimo
+    private final byte[] defaultLeaderboard;
+    private final int defaultLimit;
+
+    /**
+     * Costruisce la fotografia.
+     *
+     * @param stats Le statistiche di tutti gli utenti.
+     * @param defaultLimit Numero di posizioni della classifica predefinita.
+     */
+    StatsSnapshot(Map<String, ? extends PlayerStats> stats, int defaultLimit) {
+        List<Entry> entries = new ArrayList<>(stats.size());
+        for (Map.Entry<String, ? extends PlayerStats> entry : stats.entrySet()) {
+            PlayerStats value = entry.getValue();
+            entries.add(new Entry(entry.getKey(), value.getGamesPlayed(), value.getGamesWon(), value.getGamesLost()));
+        }
+        // Più vittorie prima; a parità, meno partite giocate; poi il nome
+        entries.sort(Comparator.comparingInt((Entry e) -> -e.won).thenComparingInt(e -> e.played).thenComparing(e -> e.user));
+
+        this.users = new HashMap<>(entries.size() * 2);
+        this.ranking = new ArrayList<>(entries.size());
+        for (int i = 0; i < entries.size(); i++) {
+            String json = entries.get(i).toJson(i + 1);
+            users.put(entries.get(i).user, json.getBytes(StandardCharsets.UTF_8));
+            ranking.add(json);
+        }
+        this.defaultLimit = defaultLimit;
+        this.defaultLeaderboard = buildLeaderboard(defaultLimit);
+    }
+
+    /**
+     * Restituisce le statistiche di un utente.
+     *
+     * @param user Nome dell'utente.
+     * @return Il JSON delle statistiche, oppure null se l'utente non ha statistiche.
+     */
+    byte[] user(String user) {
+        return users.get(user);
+    }
+
+    /**
+     * Restituisce le prime posizioni della classifica.
+     *
+     * @param limit Numero di posizioni.
+     * @return Il JSON della classifica.
+     */
+    byte[] leaderboard(int limit) {
+        return limit == defaultLimit ? defaultLeaderboard : buildLeaderboard(limit);
+    }
+
+    /**
+     * Compone il JSON della classifica.
+     *
+     * @param limit Numero di posizioni.
+     * @return Il JSON della classifica.
+     */
+    private byte[] buildLeaderboard(int limit) {
+        StringBuilder sb = new StringBuilder("{\"users\":").append(ranking.size()).append(",\"leaderboard\":[");
+        for (int i = 0; i < Math.min(limit, ranking.size()); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(ranking.get(i));
+        }
+        return sb.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Statistiche di un utente al momento della fotografia.
+     */
+    private static class Entry {
+
+        private final String user;
+        private final int played;
+        private final int won;
+        private final int lost;
+
+        Entry(String user, int played, int won, int lost) {
+            this.user = user;
+            this.played = played;
+            this.won = won;
+            this.lost = lost;
+        }
+
+        /**
+         * Scrive le statistiche con gli stessi valori del menu delle statistiche: partite giocate,
+         * vinte e perse, livello e avanzamento del livello in percentuale.
+         *
+         * @param rank Posizione in classifica.
+         * @return Il JSON dell'utente.
+         */
+        String toJson(int rank) {
+            return "{\"user\":" + ApiServer.quote(user) + ",\"rank\":" + rank + ",\"played\":" + played
+                    + ",\"won\":" + won + ",\"lost\":" + lost + ",\"level\":" + won / LEVEL_WINS
+                    + ",\"progress\":" + (won % LEVEL_WINS) * 10 + "}";
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package server;
+
+import metrics.GameMetrics;
+import model.Deck;
+import model.GameEngine;
+import model.GameState;
+import model.Outcome;
+import model.PlayerStats;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Classe Table che rappresenta un tavolo indipendente: ha il proprio shoe, le proprie mani
+ * e le statistiche dell'utente seduto. Le regole sono quelle di {@link GameEngine}.
+ * <p>
+ * Ogni tavolo ha il proprio lock, quindi le azioni su tavoli diversi non si contendono
+ * alcuna risorsa condivisa.
+ */
+public class Table {
+
+    private final long id;
+    private final String user;
+    private final PlayerStats stats;
+    private final GameEngine engine;
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * Costruttore della classe Table.
+     *
+     * @param id Identificativo del tavolo.
+     * @param user Nome dell'utente seduto al tavolo.
+     * @param stats Statistiche dell'utente, condivise tra i suoi tavoli.
+     * @param deck Lo shoe del tavolo.
+     */
+    public Table(long id, String user, PlayerStats stats, Deck deck) {
+        this.id = id;
+        this.user = user;
+        this.stats = stats;
+        this.engine = new GameEngine(deck);
+        engine.setMetrics(GameMetrics.ENGINE);
+    }
+
+    /**
+     * Avvia un nuovo round distribuendo le carte iniziali.
+     *
+     * @return Lo stato dopo la distribuzione.
+     * @throws IllegalStateException se un round è già in corso.
+     */
+    public GameState startRound() {
+        lock.lock();
+        try {
+            if (!engine.isRoundOver()) {
+                throw new IllegalStateException("Round already in progress on table " + id);
+            }
+            return record(engine.startRound());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Avvia un nuovo round anche se quello corrente non è concluso, come il pulsante "RETRY"
+     * dell'interfaccia: il round abbandonato non viene conteggiato nelle statistiche.
+     *
+     * @return Lo stato dopo la distribuzione.
+     */
+    public GameState retry() {
+        lock.lock();
+        try {
+            return record(engine.startRound());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Il giocatore chiede una carta. Se supera o raggiunge 21 il round si conclude.
+     *
+     * @return Lo stato dopo la carta.
+     * @throws IllegalStateException se non c'è un round in corso.
+     */
+    public GameState hit() {
+        lock.lock();
+        try {
+            return record(engine.hit());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Il giocatore sta: il dealer gioca il suo turno e il round si conclude.
+     *
+     * @return Lo stato a fine round.
+     * @throws IllegalStateException se non c'è un round in corso.
+     */
+    public GameState stand() {
+        lock.lock();
+        try {
+            return record(engine.stand());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restituisce lo stato corrente del tavolo.
+     *
+     * @return Lo stato del round.
+     */
+    public GameState getState() {
+        lock.lock();
+        try {
+            return engine.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restituisce l'esito dell'ultimo round concluso.
+     *
+     * @return L'esito, oppure null se il round è ancora in corso o non è mai iniziato.
+     */
+    public Outcome getOutcome() {
+        return getState().getOutcome();
+    }
+
+    /**
+     * Indica se un round è in corso.
+     *
+     * @return true se il giocatore deve ancora decidere.
+     */
+    public boolean isInRound() {
+        lock.lock();
+        try {
+            return !engine.isRoundOver();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Restituisce l'identificativo del tavolo.
+     *
+     * @return L'identificativo del tavolo.
+     */
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Restituisce il nome dell'utente seduto al tavolo.
+     *
+     * @return Il nome dell'utente.
+     */
+    public String getUser() {
+        return user;
+    }
+
+    /**
+     * Restituisce le statistiche dell'utente seduto al tavolo.
+     *
+     * @return Le statistiche dell'utente.
+     */
+    public PlayerStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Aggiorna le statistiche se l'azione ha concluso il round.
+     *
+     * @param state Lo stato dopo l'azione.
+     * @return Lo stesso stato.
+     */
+    private GameState record(GameState state) {
+        if (state.isRoundOver()) {
+            stats.record(state.getOutcome());
+        }
+        return state;
+    }
+}
@@ -0,0 +1,140 @@
+package server;
+
+import model.Deck;
+import model.PlayerStats;
+import store.StatsStore;
+import util.GameExecutors;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Classe TableManager che gestisce migliaia di tavoli indipendenti nello stesso processo.
+ * <p>
+ * I tavoli non hanno un thread dedicato: le azioni vengono eseguite su un executor condiviso
+ * (virtual thread dove disponibili) e serializzate dal lock del singolo tavolo. Le statistiche
+ * sono per utente e condivise tra i tavoli dello stesso utente.
+ */
+public class TableManager {
+
+    private final ConcurrentHashMap<Long, Table> tables = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, PlayerStats> stats = new ConcurrentHashMap<>();
+    private final AtomicLong nextId = new AtomicLong();
+    private final ExecutorService executor;
+    private final int numDecks;
+    private final StatsStore statsStore; // null se le statistiche restano solo in memoria
+
+    /**
+     * Costruttore della classe TableManager con statistiche solo in memoria.
+     *
+     * @param numDecks Numero di mazzi dello shoe di ogni tavolo.
+     */
+    public TableManager(int numDecks) {
+        this(numDecks, null);
+    }
+
+    /**
+     * Costruttore della classe TableManager con statistiche salvate su disco.
+     *
+     * @param numDecks Numero di mazzi dello shoe di ogni tavolo.
+     * @param statsStore Archivio delle statistiche per utente, oppure null.
+     */
+    public TableManager(int numDecks, StatsStore statsStore) {
+        this.numDecks = numDecks;
+        this.statsStore = statsStore;
+        this.executor = GameExecutors.newTaskExecutor("table");
+    }
+
+    /**
+     * Apre un nuovo tavolo per un utente.
+     *
+     * @param user Nome dell'utente.
+     * @return Il tavolo creato.
+     */
+    public Table openTable(String user) {
+        long id = nextId.incrementAndGet();
+        Table table = new Table(id, user, getStats(user), new Deck(numDecks, new Random()));
+        tables.put(id, table);
+        return table;
+    }
+
+    /**
+     * Restituisce un tavolo aperto.
+     *
+     * @param id Identificativo del tavolo.
+     * @return Il tavolo, oppure null se non esiste.
+     */
+    public Table getTable(long id) {
+        return tables.get(id);
+    }
+
+    /**
+     * Chiude un tavolo.
+     *
+     * @param id Identificativo del tavolo.
+     */
+    public void closeTable(long id) {
+        tables.remove(id);
+    }
+
+    /**
+     * Restituisce i tavoli aperti.
+     *
+     * @return Una vista dei tavoli aperti.
+     */
+    public Collection<Table> getTables() {
+        return tables.values();
+    }
+
+    /**
+     * Restituisce le statistiche di un utente, creandole alla prima richiesta.
+     *
+     * @param user Nome dell'utente.
+     * @return Le statistiche dell'utente.
+     */
+    public PlayerStats getStats(String user) {
+        if (statsStore != null) {
+            return statsStore.getStats(user);
+        }
+        return stats.computeIfAbsent(user, name -> new PlayerStats());
+    }
+
+    /**
+     * Restituisce una vista delle statistiche di tutti gli utenti noti al server.
+     *
+     * @return Le statistiche indicizzate per nome utente.
+     */
+    public Map<String, ? extends PlayerStats> getAllStats() {
+        return statsStore != null ? statsStore.getAllStats() : stats;
+    }
+
+    /**
+     * Esegue un'azione su un tavolo in modo asincrono.
+     *
+     * @param id Identificativo del tavolo.
+     * @param action Azione da eseguire sul tavolo.
+     * @param <T> Tipo del risultato dell'azione.
+     * @return Il risultato dell'azione; fallisce con IllegalArgumentException se il tavolo non esiste.
+     */
+    public <T> CompletableFuture<T> submit(long id, Function<Table, T> action) {
+        Table table = tables.get(id);
+        if (table == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("Unknown table " + id));
+        }
+        return CompletableFuture.supplyAsync(() -> action.apply(table), executor);
+    }
+
+    /**
+     * Chiude l'executor e tutti i tavoli.
+     */
+    public void shutdown() {
+        executor.shutdownNow();
+        tables.clear();
+    }
+}
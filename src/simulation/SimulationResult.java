@@ -0,0 +1,146 @@
+package simulation;
+
+import model.Outcome;
+
+/**
+ * Classe SimulationResult che raccoglie i totali di una simulazione: round giocati,
+ * vittorie, sconfitte, pareggi e sballi del giocatore.
+ */
+public class SimulationResult {
+
+    private long rounds;
+    private long wins;
+    private long losses;
+    private long ties;
+    private long busts;
+    private long elapsedNanos;
+
+    /**
+     * Registra l'esito di un round.
+     *
+     * @param outcome L'esito della mano del giocatore.
+     */
+    void record(Outcome outcome) {
+        rounds++;
+        switch (outcome) {
+            case WIN:
+                wins++;
+                break;
+            case LOSS:
+                losses++;
+                break;
+            case TIE:
+                ties++;
+                break;
+            case BUST:
+                busts++;
+                break;
+        }
+    }
+
+    /**
+     * Somma a questo risultato i totali di un altro risultato parziale.
+     *
+     * @param other Il risultato parziale da unire.
+     */
+    void merge(SimulationResult other) {
+        rounds += other.rounds;
+        wins += other.wins;
+        losses += other.losses;
+        ties += other.ties;
+        busts += other.busts;
+    }
+
+    /**
+     * Imposta il tempo impiegato dalla simulazione.
+     *
+     * @param elapsedNanos Durata della simulazione in nanosecondi.
+     */
+    void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Restituisce il numero di round giocati.
+     *
+     * @return Il numero di round giocati.
+     */
+    public long getRounds() {
+        return rounds;
+    }
+
+    /**
+     * Restituisce il numero di vittorie del giocatore.
+     *
+     * @return Il numero di vittorie del giocatore.
+     */
+    public long getWins() {
+        return wins;
+    }
+
+    /**
+     * Restituisce il numero di sconfitte del giocatore.
+     *
+     * @return Il numero di sconfitte del giocatore.
+     */
+    public long getLosses() {
+        return losses;
+    }
+
+    /**
+     * Restituisce il numero di pareggi.
+     *
+     * @return Il numero di pareggi.
+     */
+    public long getTies() {
+        return ties;
+    }
+
+    /**
+     * Restituisce il numero di mani in cui il giocatore ha sballato.
+     *
+     * @return Il numero di mani in cui il giocatore ha sballato.
+     */
+    public long getBusts() {
+        return busts;
+    }
+
+    /**
+     * Restituisce la durata della simulazione in nanosecondi.
+     *
+     * @return La durata della simulazione in nanosecondi.
+     */
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Restituisce il numero di mani simulate al secondo.
+     *
+     * @return Le mani al secondo, 0 se il tempo non è stato misurato.
+     */
+    public double getHandsPerSecond() {
+        return elapsedNanos == 0 ? 0 : rounds * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /**
+     * Restituisce il guadagno medio del giocatore per mano con puntata unitaria
+     * (i pareggi restituiscono la puntata). Un valore negativo è il vantaggio del banco.
+     *
+     * @return Il valore atteso per mano del giocatore.
+     */
+    public double getPlayerEdge() {
+        return rounds == 0 ? 0 : (double) (wins - losses - busts) / rounds;
+    }
+
+    /**
+     * Restituisce un riepilogo leggibile della simulazione.
+     *
+     * @return Il riepilogo dei totali e della velocità.
+     */
+    @Override
+    public String toString() {
+        return String.format("Rounds: %d%nWins: %d%nLosses: %d%nTies: %d%nBusts: %d%nPlayer edge: %.4f%%%nHands/s: %.0f",
+                rounds, wins, losses, ties, busts, getPlayerEdge() * 100, getHandsPerSecond());
+    }
+}
@@ -0,0 +1,137 @@
+package simulation;
+
+import model.Deck;
+import model.Hand;
+import model.Player;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Classe Simulator che gioca round di Blackjack senza interfaccia grafica, applicando le stesse
+ * regole di distribuzione e del dealer definite in {@link Player}.
+ * <p>
+ * Il lavoro è diviso in blocchi di dimensione fissa; ogni blocco ha il proprio shoe e il proprio
+ * generatore casuale, con un seme derivato dal seme della simulazione e dall'indice del blocco.
+ * In questo modo il risultato dipende solo dal seme e non dal numero di thread usati.
+ */
+public class Simulator {
+
+    private static final int CHUNK_SIZE = 100_000; // round per blocco di lavoro
+
+    private final int numDecks;
+    private final int standOn;
+    private final int threads;
+
+    /**
+     * Costruttore della classe Simulator.
+     *
+     * @param numDecks Numero di mazzi dello shoe.
+     * @param standOn Punteggio a partire dal quale il giocatore smette di chiedere carte.
+     * @param threads Numero di thread su cui distribuire la simulazione.
+     */
+    public Simulator(int numDecks, int standOn, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.numDecks = numDecks;
+        this.standOn = standOn;
+        this.threads = threads;
+    }
+
+    /**
+     * Esegue la simulazione usando tutti i core disponibili.
+     *
+     * @param rounds Numero di round da giocare.
+     * @param seed Seme della simulazione.
+     * @return I totali della simulazione.
+     * @throws InterruptedException se il thread viene interrotto durante l'attesa dei risultati.
+     */
+    public SimulationResult run(long rounds, long seed) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            long start = System.nanoTime();
+            List<Future<SimulationResult>> futures = new ArrayList<>();
+            long chunks = (rounds + CHUNK_SIZE - 1) / CHUNK_SIZE;
+            for (long chunk = 0; chunk < chunks; chunk++) {
+                long chunkRounds = Math.min(CHUNK_SIZE, rounds - chunk * CHUNK_SIZE);
+                long chunkSeed = chunkSeed(seed, chunk);
+                futures.add(executor.submit(() -> simulate(chunkRounds, chunkSeed)));
+            }
+
+            SimulationResult total = new SimulationResult();
+            for (Future<SimulationResult> future : futures) {
+                total.merge(future.get());
+            }
+            total.setElapsedNanos(System.nanoTime() - start);
+            return total;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Gioca un blocco di round con uno shoe e un generatore casuale dedicati.
+     *
+     * @param rounds Numero di round del blocco.
+     * @param seed Seme del blocco.
+     * @return I totali del blocco.
+     */
+    SimulationResult simulate(long rounds, long seed) {
+        Deck deck = new Deck(numDecks, new Random(seed)); // shoe dedicato al blocco, riutilizzato tra i round
+        Hand dealer = new Hand();
+        Hand hand = new Hand();
+        SimulationResult result = new SimulationResult();
+        for (long i = 0; i < rounds; i++) {
+            deck.shuffleIfNeeded();
+            dealer.clear(); // le mani vengono riutilizzate tra i round
+            hand.clear();
+            Player.dealInitialHands(deck, dealer, hand);
+
+            // Il giocatore chiede carte fino alla soglia; a 21 il turno passa comunque al dealer
+            while (hand.getSum() < standOn) {
+                hand.addToHand(deck.drawCard());
+            }
+            Player.playDealerHand(dealer, deck);
+            result.record(Player.evaluate(hand, dealer));
+        }
+        return result;
+    }
+
+    /**
+     * Deriva il seme di un blocco dal seme della simulazione (mescolamento SplitMix64).
+     *
+     * @param seed Seme della simulazione.
+     * @param chunk Indice del blocco.
+     * @return Il seme del blocco.
+     */
+    static long chunkSeed(long seed, long chunk) {
+        long z = seed + (chunk + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Avvia una simulazione da riga di comando.
+     *
+     * @param args [round] [seme] [mazzi] [soglia del giocatore]
+     * @throws InterruptedException se la simulazione viene interrotta.
+     */
+    public static void main(String[] args) throws InterruptedException {
+        long rounds = args.length > 0 ? Long.parseLong(args[0]) : 10_000_000L;
+        long seed = args.length > 1 ? Long.parseLong(args[1]) : 42L;
+        int numDecks = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        int standOn = args.length > 3 ? Integer.parseInt(args[3]) : 17;
+
+        Simulator simulator = new Simulator(numDecks, standOn, Runtime.getRuntime().availableProcessors());
+        System.out.println(simulator.run(rounds, seed));
+    }
+}
@@ -0,0 +1,390 @@
+package store;
+
+import model.Outcome;
+import model.PlayerStats;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Classe StatsStore che conserva le statistiche di gioco di ogni utente tra un avvio e l'altro.
+ * <p>
+ * I contatori in memoria sono atomici. Registrare un risultato aggiorna i contatori e il numero
+ * di risultati non ancora salvati dell'utente, per esito, e alla prima modifica mette l'utente in
+ * una coda senza lock: nessuna stringa e nessun I/O sul thread che gioca. Un thread in background
+ * compone le righe dei risultati in sospeso, le scrive in blocchi in fondo a un file di log e forza
+ * la scrittura su disco (fsync) a intervalli configurabili. All'avvio il log viene riletto e compattato in una riga per utente; le righe
+ * incomplete lasciate da un arresto improvviso vengono ignorate. Lo stesso thread ricompatta il
+ * log a intervalli più lunghi, così il file non cresce senza limiti mentre il gioco resta aperto.
+ * <p>
+ * Un solo processo per volta può aprire il log: l'archivio prende un lock esclusivo sul file
+ * "stats.log.lock" e non si apre se un altro processo (ad esempio un server avviato nella stessa
+ * cartella) lo tiene già.
+ * <p>
+ * Formato del log: "S,nome,giocate,vinte,perse" per i totali compattati e "R,nome,ESITO" per
+ * ogni risultato registrato.
+ */
+public class StatsStore implements AutoCloseable {
+
+    /** File del log delle statistiche. */
+    public static final String FILE_PATH = "stats.log";
+    /** Intervallo predefinito tra due scritture su disco, modificabile con -Dblackjack.statsFlushMillis. */
+    public static final long DEFAULT_FLUSH_MILLIS = Long.getLong("blackjack.statsFlushMillis", 1000L);
+    /** Intervallo predefinito tra due compattazioni, modificabile con -Dblackjack.statsCompactMillis. */
+    public static final long DEFAULT_COMPACT_MILLIS = Long.getLong("blackjack.statsCompactMillis", 600_000L);
+
+    private static StatsStore instance;
+
+    private final File file;
+    private final FileLock lock;
+    private final Map<String, PersistentStats> stats = new ConcurrentHashMap<>();
+    private final Queue<PersistentStats> pending = new ConcurrentLinkedQueue<>(); // utenti con risultati non salvati
+    private final ReadWriteLock recording = new ReentrantReadWriteLock(); // esclude i risultati durante la fotografia dei totali
+    private final ScheduledExecutorService flusher;
+    private FileChannel channel;
+    private long appended; // risultati scritti dall'ultima compattazione
+
+    /**
+     * Costruttore della classe StatsStore. Recupera e compatta il log esistente e avvia
+     * il thread di scrittura, con l'intervallo di compattazione predefinito.
+     *
+     * @param file Il file del log.
+     * @param flushMillis Intervallo in millisecondi tra due scritture su disco.
+     * @throws IOException se il log non può essere letto o aperto, o è in uso da un altro processo.
+     */
+    public StatsStore(File file, long flushMillis) throws IOException {
+        this(file, flushMillis, DEFAULT_COMPACT_MILLIS);
+    }
+
+    /**
+     * Costruttore della classe StatsStore. Recupera e compatta il log esistente e avvia
+     * il thread di scrittura.
+     *
+     * @param file Il file del log.
+     * @param flushMillis Intervallo in millisecondi tra due scritture su disco.
+     * @param compactMillis Intervallo in millisecondi tra due compattazioni del log.
+     * @throws IOException se il log non può essere letto o aperto, o è in uso da un altro processo.
+     */
+    public StatsStore(File file, long flushMillis, long compactMillis) throws IOException {
+        this.file = file;
+        this.lock = StoreLock.acquire(file);
+        try {
+            recover();
+            compact(snapshot());
+            channel = open();
+        } catch (IOException e) {
+            lock.channel().close();
+            throw e;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "stats-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+        flusher.scheduleWithFixedDelay(this::recompact, compactMillis, compactMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Restituisce l'archivio delle statistiche del gioco, aprendolo alla prima richiesta.
+     *
+     * @return L'archivio delle statistiche.
+     * @throws IllegalStateException se il log non può essere aperto.
+     */
+    public static synchronized StatsStore getDefault() {
+        if (instance == null) {
+            try {
+                instance = new StatsStore(new File(FILE_PATH), DEFAULT_FLUSH_MILLIS);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open " + FILE_PATH, e);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Chiude l'archivio del gioco, se è stato aperto, scrivendo i risultati in sospeso.
+     */
+    public static synchronized void closeDefault() {
+        if (instance != null) {
+            instance.close();
+            instance = null;
+        }
+    }
+
+    /**
+     * Restituisce le statistiche di un utente. Ogni risultato registrato su questo oggetto
+     * viene salvato sul log.
+     *
+     * @param user Nome dell'utente.
+     * @return Le statistiche dell'utente.
+     */
+    public PlayerStats getStats(String user) {
+        return stats.computeIfAbsent(user, PersistentStats::new);
+    }
+
+    /**
+     * Restituisce una vista delle statistiche di tutti gli utenti.
+     *
+     * @return Le statistiche indicizzate per nome utente.
+     */
+    public Map<String, ? extends PlayerStats> getAllStats() {
+        return stats;
+    }
+
+    /**
+     * Scrive su disco i risultati in sospeso e forza la scrittura (fsync).
+     */
+    public synchronized void flush() {
+        if (pending.isEmpty() || channel == null) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        appended += takePending(batch);
+        write(batch);
+    }
+
+    /**
+     * Compone le righe dei risultati in sospeso e li segna come salvati.
+     *
+     * @param batch Il buffer in cui aggiungere le righe "R,nome,ESITO".
+     * @return Il numero di risultati.
+     */
+    private int takePending(StringBuilder batch) {
+        Outcome[] outcomes = Outcome.values();
+        int count = 0;
+        PersistentStats entry;
+        while ((entry = pending.poll()) != null) {
+            entry.queued.set(false); // un risultato registrato da qui in poi rimette l'utente in coda
+            for (int i = 0; i < outcomes.length; i++) {
+                for (int n = entry.unsaved.getAndSet(i, 0); n > 0; n--) {
+                    batch.append("R,").append(entry.user).append(',').append(outcomes[i].name()).append('\n');
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Scrive un blocco di righe in fondo al log e forza la scrittura su disco.
+     *
+     * @param batch Le righe.
+     */
+    private void write(CharSequence batch) {
+        if (batch.length() == 0) {
+            return;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(batch.toString().getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Ferma il thread di scrittura, scrive i risultati in sospeso, chiude il log e rilascia il lock.
+     */
+    @Override
+    public synchronized void close() {
+        flusher.shutdown();
+        flush();
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+            lock.channel().close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        channel = null;
+    }
+
+    /**
+     * Ricompatta il log mentre il gioco è aperto, se sono stati scritti risultati dall'ultima
+     * compattazione. Gira sul thread di scrittura.
+     * <p>
+     * I risultati in sospeso vengono presi e i totali fotografati, solo in memoria, mentre nessun
+     * risultato può essere registrato; il lock viene rilasciato prima di qualsiasi I/O. I totali
+     * comprendono i risultati presi, quindi ogni risultato finisce o nei totali o nel log
+     * successivo, mai in entrambi. Se la compattazione fallisce i risultati presi vengono aggiunti
+     * al vecchio log, che resta completo.
+     */
+    private synchronized void recompact() {
+        if (channel == null) {
+            return;
+        }
+        StringBuilder batch = new StringBuilder();
+        int taken;
+        String snapshot;
+        recording.writeLock().lock();
+        try {
+            taken = takePending(batch);
+            if (appended + taken == 0) {
+                return;
+            }
+            snapshot = snapshot();
+        } finally {
+            recording.writeLock().unlock();
+        }
+        boolean compacted = false;
+        try {
+            channel.close();
+            compact(snapshot);
+            compacted = true;
+            appended = 0;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        try {
+            channel = open();
+        } catch (IOException e) {
+            e.printStackTrace();
+            channel = null; // i risultati restano in memoria, ma non vengono più salvati
+            return;
+        }
+        if (!compacted) {
+            write(batch); // il vecchio log resta completo; si ritenta alla prossima compattazione
+            appended += taken;
+        }
+    }
+
+    /**
+     * Apre il log in aggiunta.
+     *
+     * @return Il canale del log.
+     * @throws IOException se il log non può essere aperto.
+     */
+    private FileChannel open() throws IOException {
+        return FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Rilegge il log e ricostruisce i contatori in memoria.
+     *
+     * @throws IOException se il log non può essere letto.
+     */
+    private void recover() throws IOException {
+        if (!file.isFile()) {
+            return;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                try {
+                    if (fields.length == 5 && fields[0].equals("S")) {
+                        stats(fields[1]).add(Integer.parseInt(fields[2]), Integer.parseInt(fields[3]), Integer.parseInt(fields[4]));
+                    } else if (fields.length == 3 && fields[0].equals("R")) {
+                        stats(fields[1]).restore(Outcome.valueOf(fields[2]));
+                    }
+                } catch (IllegalArgumentException e) {
+                    // riga incompleta, scritta durante un arresto improvviso: viene ignorata
+                }
+            }
+        }
+    }
+
+    /**
+     * Compone una riga di totali per utente.
+     *
+     * @return Le righe "S,nome,giocate,vinte,perse".
+     */
+    private String snapshot() {
+        StringBuilder snapshot = new StringBuilder();
+        for (PersistentStats entry : stats.values()) {
+            snapshot.append("S,").append(entry.user).append(',').append(entry.getGamesPlayed()).append(',')
+                    .append(entry.getGamesWon()).append(',').append(entry.getGamesLost()).append('\n');
+        }
+        return snapshot.toString();
+    }
+
+    /**
+     * Riscrive il log con i totali indicati, in modo atomico.
+     *
+     * @param snapshot Le righe dei totali.
+     * @throws IOException se il log non può essere scritto.
+     */
+    private void compact(String snapshot) throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileChannel out = FileChannel.open(tmp.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.wrap(snapshot.getBytes(StandardCharsets.UTF_8));
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+            out.force(true);
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Restituisce le statistiche di un utente con il tipo interno.
+     *
+     * @param user Nome dell'utente.
+     * @return Le statistiche dell'utente.
+     */
+    private PersistentStats stats(String user) {
+        return stats.computeIfAbsent(user, PersistentStats::new);
+    }
+
+    /**
+     * Statistiche di un utente che contano i risultati non ancora scritti sul log.
+     */
+    private final class PersistentStats extends PlayerStats {
+        private final String user;
+        private final AtomicIntegerArray unsaved = new AtomicIntegerArray(Outcome.values().length); // per esito
+        private final AtomicBoolean queued = new AtomicBoolean(); // l'utente è nella coda dei risultati in sospeso
+
+        PersistentStats(String user) {
+            this.user = user;
+        }
+
+        @Override
+        public void record(Outcome outcome) {
+            recording.readLock().lock();
+            try {
+                super.record(outcome);
+                unsaved.incrementAndGet(outcome.ordinal());
+                if (!queued.get() && queued.compareAndSet(false, true)) {
+                    pending.offer(this);
+                }
+            } finally {
+                recording.readLock().unlock();
+            }
+        }
+
+        /**
+         * Applica un risultato letto dal log senza accodarlo di nuovo.
+         *
+         * @param outcome Il risultato.
+         */
+        void restore(Outcome outcome) {
+            super.record(outcome);
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package store;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lock esclusivo su un archivio, preso con un file ".lock" accanto al file dell'archivio.
+ * <p>
+ * Gli archivi tengono i dati in memoria e li aggiungono in coda al file, quindi due processi che
+ * aprono lo stesso file si perderebbero a vicenda le scritture (e la compattazione di uno
+ * sostituisce il file su cui l'altro sta ancora scrivendo). Il lock è su un file separato perché
+ * la compattazione sostituisce il file dell'archivio; viene rilasciato alla chiusura o all'uscita
+ * del processo.
+ */
+final class StoreLock {
+
+    private StoreLock() { }
+
+    /**
+     * Prende il lock esclusivo di un archivio, senza attendere.
+     *
+     * @param file Il file dell'archivio.
+     * @return Il lock, da rilasciare chiudendo il suo canale.
+     * @throws IOException se il lock è già preso da un altro processo (o da un altro archivio
+     *                     sullo stesso file in questo processo) o il file del lock non può essere aperto.
+     */
+    static FileLock acquire(File file) throws IOException {
+        File lockFile = new File(file.getPath() + ".lock");
+        FileChannel channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        FileLock lock;
+        try {
+            lock = channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            lock = null;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        if (lock == null) {
+            channel.close();
+            throw new IOException(file + " is in use by another process (" + lockFile + " is locked)");
+        }
+        return lock;
+    }
+}
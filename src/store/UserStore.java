@@ -0,0 +1,276 @@
+package store;
+
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Classe UserStore che conserva gli utenti registrati con password salate e sottoposte a hash.
+ * <p>
+ * Gli utenti vengono caricati una sola volta in un indice in memoria, quindi il login è una
+ * ricerca in tabella seguita dalla verifica dell'hash. Su disco le registrazioni vengono
+ * aggiunte in coda a un log ("nome,sale,hash" per riga). Un nome non può essere registrato due
+ * volte, quindi il log ha già una sola riga per utente e non serve compattarlo.
+ * <p>
+ * Al primo avvio gli utenti del vecchio file in chiaro "users.csv" vengono importati e il file
+ * viene rinominato "users.csv.imported", così non viene importato di nuovo; contiene ancora le
+ * password in chiaro e va eliminato a mano dopo aver verificato l'importazione.
+ * <p>
+ * Un solo processo per volta può aprire il log: l'archivio prende un lock esclusivo sul file
+ * "users.db.lock", tenuto fino all'uscita del processo, e non si apre se un altro processo lo
+ * tiene già; altrimenti un utente registrato in un processo non sarebbe mai visto dall'altro.
+ */
+public class UserStore {
+
+    /** File del log degli utenti. */
+    public static final String FILE_PATH = "users.db";
+    /** Vecchio file degli utenti, con le password in chiaro. */
+    public static final String LEGACY_FILE_PATH = "users.csv";
+    /** Estensione aggiunta al vecchio file degli utenti dopo l'importazione. */
+    public static final String IMPORTED_SUFFIX = ".imported";
+
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int ITERATIONS = 10_000;
+    private static final int KEY_BITS = 256;
+    private static final int SALT_BYTES = 16;
+
+    private static UserStore instance;
+
+    private final File file;
+    private final FileLock lock; // tenuto finché il processo è attivo
+    private final Map<String, Credentials> users = new ConcurrentHashMap<>();
+    private final SecureRandom random = new SecureRandom();
+
+    /**
+     * Costruttore della classe UserStore. Prende il lock del log e lo carica, se esiste.
+     *
+     * @param file Il file del log degli utenti.
+     * @throws IOException se il log è in uso da un altro processo.
+     */
+    public UserStore(File file) throws IOException {
+        this.file = file;
+        this.lock = StoreLock.acquire(file);
+        load();
+    }
+
+    /**
+     * Restituisce l'archivio degli utenti del gioco, caricandolo alla prima richiesta.
+     *
+     * @return L'archivio degli utenti.
+     * @throws IllegalStateException se il log è in uso da un altro processo.
+     */
+    public static synchronized UserStore getDefault() {
+        if (instance == null) {
+            try {
+                instance = new UserStore(new File(FILE_PATH));
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot open " + FILE_PATH, e);
+            }
+            if (instance.size() == 0) {
+                instance.importLegacy(new File(LEGACY_FILE_PATH));
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Verifica le credenziali di un utente.
+     *
+     * @param name Nome dell'utente.
+     * @param password Password inserita.
+     * @return true se l'utente esiste e la password è corretta.
+     */
+    public boolean authenticate(String name, String password) {
+        Credentials credentials = users.get(name);
+        return credentials != null
+                && MessageDigest.isEqual(credentials.hash, hash(password, credentials.salt));
+    }
+
+    /**
+     * Registra un nuovo utente.
+     *
+     * @param name Nome dell'utente.
+     * @param password Password dell'utente.
+     * @return true se l'utente è stato registrato, false se il nome è già in uso.
+     * @throws IllegalArgumentException se il nome è vuoto o contiene virgole o a capo.
+     */
+    public boolean register(String name, String password) {
+        if (name == null || name.isEmpty() || name.contains(",") || name.contains("\n") || name.contains("\r")) {
+            throw new IllegalArgumentException("Invalid user name: " + name);
+        }
+        Credentials credentials = newCredentials(password);
+        if (users.putIfAbsent(name, credentials) != null) {
+            return false;
+        }
+        append(name, credentials);
+        return true;
+    }
+
+    /**
+     * Indica se un utente è registrato.
+     *
+     * @param name Nome dell'utente.
+     * @return true se l'utente esiste.
+     */
+    public boolean exists(String name) {
+        return users.containsKey(name);
+    }
+
+    /**
+     * Restituisce il numero di utenti registrati.
+     *
+     * @return Il numero di utenti.
+     */
+    public int size() {
+        return users.size();
+    }
+
+    /**
+     * Importa gli utenti da un file in chiaro "nome,password", calcolando gli hash delle password.
+     * Se tutti gli utenti sono stati salvati il file in chiaro viene rinominato con l'estensione
+     * {@value #IMPORTED_SUFFIX}, senza sovrascrivere un'importazione precedente.
+     *
+     * @param legacyFile Il vecchio file degli utenti.
+     */
+    void importLegacy(File legacyFile) {
+        if (!legacyFile.isFile()) {
+            return;
+        }
+        boolean saved = true;
+        try (BufferedReader reader = new BufferedReader(new FileReader(legacyFile, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",", 2);
+                if (fields.length == 2 && !fields[0].isEmpty() && !fields[0].contains("\r")) {
+                    Credentials credentials = newCredentials(fields[1]);
+                    if (users.putIfAbsent(fields[0], credentials) == null) {
+                        saved &= append(fields[0], credentials);
+                    }
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return; // il file resta, per ritentare l'importazione al prossimo avvio
+        }
+        if (!saved) {
+            return; // qualche utente non è stato scritto nel log: il file resta
+        }
+        File imported = new File(legacyFile.getPath() + IMPORTED_SUFFIX);
+        for (int i = 1; imported.exists(); i++) {
+            imported = new File(legacyFile.getPath() + IMPORTED_SUFFIX + "." + i);
+        }
+        if (legacyFile.renameTo(imported)) {
+            System.err.println("Imported " + legacyFile + " into " + file + "; the original is now " + imported
+                    + " and still contains plaintext passwords");
+        } else {
+            System.err.println("Cannot rename " + legacyFile + " to " + imported);
+        }
+    }
+
+    /**
+     * Carica il log nell'indice in memoria; per ogni nome vale l'ultima riga.
+     */
+    private synchronized void load() {
+        if (!file.isFile()) {
+            return;
+        }
+        Base64.Decoder decoder = Base64.getDecoder();
+        try (BufferedReader reader = new BufferedReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length == 3) {
+                    users.put(fields[0], new Credentials(decoder.decode(fields[1]), decoder.decode(fields[2])));
+                }
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Aggiunge una registrazione in coda al log.
+     *
+     * @param name Nome dell'utente.
+     * @param credentials Credenziali dell'utente.
+     * @return true se la riga è stata scritta.
+     */
+    private synchronized boolean append(String name, Credentials credentials) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8, true))) {
+            writer.write(line(name, credentials));
+            writer.newLine();
+            return true;
+        } catch (IOException e) {
+            e.printStackTrace();
+            return false;
+        }
+    }
+
+    /**
+     * Crea le credenziali di una password con un sale casuale.
+     *
+     * @param password La password.
+     * @return Sale e hash della password.
+     */
+    private Credentials newCredentials(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        return new Credentials(salt, hash(password, salt));
+    }
+
+    /**
+     * Formatta una riga del log.
+     *
+     * @param name Nome dell'utente.
+     * @param credentials Credenziali dell'utente.
+     * @return La riga "nome,sale,hash".
+     */
+    private static String line(String name, Credentials credentials) {
+        Base64.Encoder encoder = Base64.getEncoder();
+        return name + "," + encoder.encodeToString(credentials.salt) + "," + encoder.encodeToString(credentials.hash);
+    }
+
+    /**
+     * Calcola l'hash PBKDF2 di una password.
+     *
+     * @param password La password.
+     * @param salt Il sale dell'utente.
+     * @return L'hash della password.
+     */
+    private static byte[] hash(String password, byte[] salt) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, ITERATIONS, KEY_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " not available", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    /**
+     * Sale e hash della password di un utente.
+     */
+    private static final class Credentials {
+        private final byte[] salt;
+        private final byte[] hash;
+
+        Credentials(byte[] salt, byte[] hash) {
+            this.salt = salt;
+            this.hash = hash;
+        }
+    }
+}
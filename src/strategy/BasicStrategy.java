@@ -0,0 +1,220 @@
+package strategy;
+
+import model.Card;
+import model.Hand;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * Classe BasicStrategy che contiene la tabella delle decisioni hit/stand per ogni combinazione
+ * di punteggio del giocatore, mano soft o hard e carta scoperta del dealer.
+ * <p>
+ * La tabella è un array piatto di byte indicizzato da una chiave primitiva, quindi ogni
+ * consultazione costa un accesso ad array e non alloca oggetti. Le tabelle vengono prodotte da
+ * {@link BasicStrategyGenerator} e salvate in un file compatto: l'intestazione "BJST", la
+ * versione, il numero di mazzi e un byte per stato.
+ */
+public class BasicStrategy {
+
+    /** Decisione: stare. */
+    public static final byte STAND = 0;
+    /** Decisione: chiedere carta. */
+    public static final byte HIT = 1;
+
+    private static final int MAGIC = 0x424A5354; // "BJST"
+    private static final int VERSION = 1;
+    private static final int TOTALS = 22;        // punteggi da 0 a 21
+    static final int SIZE = 2 * TOTALS * DealerProbabilities.VALUES;
+
+    private final int numDecks;
+    private final byte[] table;
+
+    /**
+     * Costruttore della classe BasicStrategy.
+     *
+     * @param numDecks Numero di mazzi per cui è stata calcolata la tabella.
+     * @param table Le decisioni, indicizzate da {@link #key(int, boolean, int)}.
+     */
+    BasicStrategy(int numDecks, byte[] table) {
+        if (table.length != SIZE) {
+            throw new IllegalArgumentException("strategy table must have " + SIZE + " entries: " + table.length);
+        }
+        this.numDecks = numDecks;
+        this.table = table;
+    }
+
+    /**
+     * Calcola la chiave di uno stato di gioco.
+     *
+     * @param total Punteggio del giocatore, da 0 a 21.
+     * @param soft Se la mano contiene un Asso contato come 11.
+     * @param upcard Indice di valore della carta scoperta del dealer (vedi {@link DealerProbabilities}).
+     * @return La chiave dello stato nella tabella.
+     */
+    public static int key(int total, boolean soft, int upcard) {
+        return ((soft ? TOTALS : 0) + total) * DealerProbabilities.VALUES + upcard;
+    }
+
+    /**
+     * Restituisce la decisione per uno stato di gioco.
+     *
+     * @param total Punteggio del giocatore.
+     * @param soft Se la mano è soft.
+     * @param upcard Indice di valore della carta scoperta del dealer.
+     * @return {@link #HIT} o {@link #STAND}.
+     */
+    public byte decision(int total, boolean soft, int upcard) {
+        if (total >= 21) {
+            return STAND; // a 21 il turno passa comunque al dealer
+        }
+        return table[key(total, soft, upcard)];
+    }
+
+    /**
+     * Indica se il giocatore deve chiedere carta.
+     *
+     * @param total Punteggio del giocatore.
+     * @param soft Se la mano è soft.
+     * @param upcard Indice di valore della carta scoperta del dealer.
+     * @return true se conviene chiedere carta.
+     */
+    public boolean shouldHit(int total, boolean soft, int upcard) {
+        return decision(total, soft, upcard) == HIT;
+    }
+
+    /**
+     * Indica se una mano deve chiedere carta contro la carta scoperta del dealer.
+     *
+     * @param hand La mano del giocatore.
+     * @param upcard La carta scoperta del dealer.
+     * @return true se conviene chiedere carta.
+     */
+    public boolean shouldHit(Hand hand, Card upcard) {
+        return shouldHit(hand.getSum(), hand.isSoft(), DealerProbabilities.valueIndex(upcard));
+    }
+
+    /**
+     * Restituisce una copia delle decisioni, indicizzate da {@link #key(int, boolean, int)}.
+     *
+     * @return La copia della tabella.
+     */
+    byte[] table() {
+        return table.clone();
+    }
+
+    /**
+     * Restituisce il numero di mazzi per cui è stata calcolata la tabella.
+     *
+     * @return Il numero di mazzi.
+     */
+    public int getNumDecks() {
+        return numDecks;
+    }
+
+    /**
+     * Restituisce la strategia per uno shoe con il numero di mazzi indicato: la carica dalla
+     * risorsa "/resources/strategy-N.bin" del classpath (la cartella src del gioco o il jar dei
+     * benchmark) e, solo se la risorsa manca o non è valida, la calcola.
+     *
+     * @param numDecks Numero di mazzi.
+     * @return La strategia.
+     */
+    public static BasicStrategy forDecks(int numDecks) {
+        String resource = "/resources/strategy-" + numDecks + ".bin";
+        try (InputStream in = BasicStrategy.class.getResourceAsStream(resource)) {
+            if (in != null) {
+                return read(in);
+            }
+            System.err.println("Strategy table " + resource + " not on the classpath, generating it");
+        } catch (IOException e) {
+            e.printStackTrace(); // risorsa non valida: la tabella viene ricalcolata
+        }
+        return BasicStrategyGenerator.generate(numDecks);
+    }
+
+    /**
+     * Carica una tabella da file.
+     *
+     * @param path Percorso del file.
+     * @return La strategia letta dal file.
+     * @throws IOException se il file non è leggibile o non è una tabella valida.
+     */
+    public static BasicStrategy load(String path) throws IOException {
+        try (InputStream in = new FileInputStream(path)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Legge una tabella da uno stream.
+     *
+     * @param in Lo stream da cui leggere.
+     * @return La strategia letta.
+     * @throws IOException se lo stream non contiene una tabella valida.
+     */
+    public static BasicStrategy read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readUnsignedByte() != VERSION) {
+            throw new IOException("Not a strategy table");
+        }
+        int numDecks = data.readUnsignedByte();
+        byte[] table = new byte[SIZE];
+        data.readFully(table);
+        return new BasicStrategy(numDecks, table);
+    }
+
+    /**
+     * Salva la tabella su file.
+     *
+     * @param path Percorso del file.
+     * @throws IOException se il file non è scrivibile.
+     */
+    public void save(String path) throws IOException {
+        try (OutputStream out = new FileOutputStream(path)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Scrive la tabella su uno stream.
+     *
+     * @param out Lo stream su cui scrivere.
+     * @throws IOException se la scrittura fallisce.
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        data.writeByte(numDecks);
+        data.write(table);
+        data.flush();
+    }
+
+    /**
+     * Restituisce la tabella in forma leggibile: una riga per punteggio, una colonna per carta del dealer.
+     *
+     * @return La tabella con H per hit e S per stand.
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("      2 3 4 5 6 7 8 9 T A\n");
+        for (int soft = 0; soft < 2; soft++) {
+            for (int total = soft == 1 ? 12 : 4; total <= 20; total++) {
+                sb.append(soft == 1 ? 'S' : 'H').append(String.format("%-4d ", total));
+                for (int up = 0; up < DealerProbabilities.VALUES; up++) {
+                    sb.append(shouldHit(total, soft == 1, up) ? 'H' : 'S').append(' ');
+                }
+                sb.append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,145 @@
+package strategy;
+
+import java.io.IOException;
+
+/**
+ * Classe BasicStrategyGenerator che calcola la strategia base hit/stand per uno shoe di N mazzi,
+ * con una ricorsione sul valore atteso secondo le regole di {@link model.Player}: il dealer si
+ * ferma a 17, a 21 il giocatore passa la mano, il pareggio restituisce la puntata.
+ * <p>
+ * È una strategia dipendente dal totale, non dalla composizione: per ogni carta scoperta del
+ * dealer la composizione dello shoe è quella completa meno la carta scoperta, e non vengono tolte
+ * né le due carte del giocatore né quelle che pesca. La distribuzione finale del dealer
+ * ({@link DealerProbabilities}) è esatta per quella composizione, ma il valore atteso è
+ * un'approssimazione, tanto più precisa quanti più mazzi ha lo shoe.
+ */
+public class BasicStrategyGenerator {
+
+    private static final int MAX_HARD = 21;
+
+    private BasicStrategyGenerator() { }
+
+    /**
+     * Calcola la strategia per uno shoe con il numero di mazzi indicato.
+     *
+     * @param numDecks Numero di mazzi.
+     * @return La strategia hit/stand dipendente dal totale.
+     */
+    public static BasicStrategy generate(int numDecks) {
+        DealerProbabilities dealer = new DealerProbabilities();
+        byte[] table = new byte[BasicStrategy.SIZE];
+
+        for (int up = 0; up < DealerProbabilities.VALUES; up++) {
+            int[] shoe = DealerProbabilities.fullShoe(numDecks);
+            shoe[up]--;
+            double[] dealerOutcomes = dealer.dealerOutcomes(up, shoe);
+            double[] draw = drawProbabilities(shoe);
+
+            // best[hard][asso]: valore atteso giocando al meglio da quello stato; hit[hard][asso]: chiedendo carta
+            double[][] best = new double[MAX_HARD + 1][2];
+            double[][] hit = new double[MAX_HARD + 1][2];
+            for (int hard = MAX_HARD; hard >= 2; hard--) {
+                for (int ace = 0; ace < 2; ace++) {
+                    int total = ace == 1 && hard <= 11 ? hard + 10 : hard;
+                    double stand = standEv(total, dealerOutcomes);
+                    hit[hard][ace] = total >= 21 ? stand : hitEv(hard, ace == 1, draw, best, dealerOutcomes);
+                    best[hard][ace] = Math.max(stand, hit[hard][ace]);
+                }
+            }
+
+            for (int hard = 2; hard <= MAX_HARD; hard++) {
+                for (int ace = 0; ace < 2; ace++) {
+                    boolean soft = ace == 1 && hard <= 11;
+                    int total = soft ? hard + 10 : hard;
+                    if (ace == 1 && !soft) {
+                        continue; // un Asso che vale 1 non cambia lo stato: coincide con la mano hard
+                    }
+                    boolean shouldHit = total < 21 && hit[hard][ace] > standEv(total, dealerOutcomes);
+                    table[BasicStrategy.key(total, soft, up)] = shouldHit ? BasicStrategy.HIT : BasicStrategy.STAND;
+                }
+            }
+        }
+        return new BasicStrategy(numDecks, table);
+    }
+
+    /**
+     * Valore atteso del chiedere una carta e poi continuare a giocare al meglio.
+     *
+     * @param hard Totale hard attuale.
+     * @param ace Se la mano contiene un Asso.
+     * @param draw Probabilità di pescare ciascun valore.
+     * @param best Valori attesi ottimali degli stati con totale hard maggiore, già calcolati.
+     * @param dealerOutcomes Distribuzione finale del dealer.
+     * @return Il valore atteso della carta aggiuntiva.
+     */
+    private static double hitEv(int hard, boolean ace, double[] draw, double[][] best, double[] dealerOutcomes) {
+        double ev = 0;
+        for (int v = 0; v < DealerProbabilities.VALUES; v++) {
+            int nextHard = hard + DealerProbabilities.hardValue(v);
+            if (nextHard > MAX_HARD) {
+                ev -= draw[v]; // sballato
+            } else {
+                boolean nextAce = ace || v == DealerProbabilities.ACE;
+                ev += draw[v] * best[nextHard][nextAce ? 1 : 0];
+            }
+        }
+        return ev;
+    }
+
+    /**
+     * Valore atteso dello stare con un punteggio dato.
+     *
+     * @param total Punteggio del giocatore.
+     * @param dealerOutcomes Distribuzione finale del dealer.
+     * @return Il valore atteso: +1 vittoria, 0 pareggio, -1 sconfitta.
+     */
+    static double standEv(int total, double[] dealerOutcomes) {
+        if (total > 21) {
+            return -1;
+        }
+        double ev = dealerOutcomes[DealerProbabilities.BUST];
+        for (int i = 0; i < DealerProbabilities.BUST; i++) {
+            int dealerTotal = 17 + i;
+            if (total > dealerTotal) {
+                ev += dealerOutcomes[i];
+            } else if (total < dealerTotal) {
+                ev -= dealerOutcomes[i];
+            }
+        }
+        return ev;
+    }
+
+    /**
+     * Calcola la probabilità di pescare ciascun valore da una composizione.
+     *
+     * @param shoe La composizione.
+     * @return Le probabilità per valore.
+     */
+    private static double[] drawProbabilities(int[] shoe) {
+        int total = 0;
+        for (int count : shoe) {
+            total += count;
+        }
+        double[] draw = new double[DealerProbabilities.VALUES];
+        for (int v = 0; v < DealerProbabilities.VALUES; v++) {
+            draw[v] = (double) shoe[v] / total;
+        }
+        return draw;
+    }
+
+    /**
+     * Genera la tabella e la salva su file.
+     *
+     * @param args [mazzi] [file di destinazione]
+     * @throws IOException se il file non è scrivibile.
+     */
+    public static void main(String[] args) throws IOException {
+        int numDecks = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        String path = args.length > 1 ? args[1] : "src/resources/strategy-" + numDecks + ".bin";
+
+        BasicStrategy strategy = generate(numDecks);
+        strategy.save(path);
+        System.out.print(strategy);
+        System.out.println("Saved " + path);
+    }
+}
@@ -0,0 +1,278 @@
+package strategy;
+
+import model.Card;
+
+import java.util.Arrays;
+
+/**
+ * Classe DealerProbabilities che calcola in modo esatto la distribuzione del punteggio finale
+ * del dealer (17, 18, 19, 20, 21 o sballato), data la carta scoperta e la composizione delle
+ * carte rimaste nello shoe, con la regola di {@link model.Player#playDealerHand}: il dealer
+ * pesca finché non raggiunge 17 o più, fermandosi anche su 17 soft.
+ * <p>
+ * La composizione è un array di 10 contatori indicizzati per valore: da 0 (il 2) a 7 (il 9),
+ * 8 per tutte le carte da 10 e 9 per l'Asso. La carta nascosta del dealer fa parte della
+ * composizione, perché il giocatore non la conosce.
+ * <p>
+ * I risultati vengono memorizzati per composizione e stato della mano del dealer, così le
+ * richieste ripetute durante uno stesso shoe costano una ricerca in tabella. La cache è una
+ * tabella ad indirizzamento aperto con chiavi long e un array piatto di double per i risultati,
+ * che cresce fino a {@value #MAX_MEMO_BYTES} byte e oltre viene svuotata. La classe non è
+ * thread-safe: ogni thread deve usare la propria istanza.
+ */
+public class DealerProbabilities {
+
+    /** Numero di esiti possibili del dealer. */
+    public static final int OUTCOMES = 6;
+    /** Indice dell'esito "sballato"; gli indici da 0 a 4 corrispondono ai punteggi da 17 a 21. */
+    public static final int BUST = 5;
+    /** Numero di valori distinti nella composizione dello shoe. */
+    public static final int VALUES = 10;
+    /** Indice del valore 10 (10, J, Q, K) nella composizione. */
+    public static final int TEN = 8;
+    /** Indice dell'Asso nella composizione. */
+    public static final int ACE = 9;
+
+    /** Memoria massima della cache, in byte. */
+    public static final int MAX_MEMO_BYTES = 16 << 20;
+
+    private static final int STATES = 34;         // stati non finali: totale hard (fino a 16) * 2 + Asso presente
+    private static final int ENTRY_DOUBLES = STATES * OUTCOMES;               // risultati di una composizione
+    private static final int ENTRY_BYTES = Long.BYTES + STATES + ENTRY_DOUBLES * Double.BYTES;
+    private static final int MIN_CAPACITY = 256;
+    private static final int MAX_CAPACITY = Integer.highestOneBit(MAX_MEMO_BYTES / ENTRY_BYTES); // 8192 composizioni
+
+    private long[] keys = new long[MIN_CAPACITY];     // chiave della composizione + 1, 0 per uno slot libero
+    private boolean[] computed = new boolean[MIN_CAPACITY * STATES];
+    private double[] results = new double[MIN_CAPACITY * ENTRY_DOUBLES];
+    private int size;                                 // composizioni memorizzate
+
+    /**
+     * Calcola la distribuzione del punteggio finale del dealer.
+     *
+     * @param upcard Indice di valore della carta scoperta del dealer.
+     * @param shoe Composizione delle carte non ancora viste, carta nascosta compresa.
+     * @return Le probabilità degli esiti: indici da 0 a 4 per i punteggi da 17 a 21, {@link #BUST} per lo sballo.
+     */
+    public double[] dealerOutcomes(int upcard, int[] shoe) {
+        int[] counts = shoe.clone(); // la ricorsione modifica i contatori e li ripristina
+        int at = outcomes(hardValue(upcard), upcard == ACE, counts, total(counts));
+        return Arrays.copyOfRange(results, at, at + OUTCOMES);
+    }
+
+    /**
+     * Svuota la cache, ad esempio quando lo shoe viene rimescolato.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(computed, false);
+        size = 0;
+    }
+
+    /**
+     * Restituisce il numero di composizioni attualmente memorizzate.
+     *
+     * @return La dimensione della cache.
+     */
+    public int cacheSize() {
+        return size;
+    }
+
+    /**
+     * Restituisce l'indice di valore di una carta nella composizione.
+     *
+     * @param card La carta.
+     * @return L'indice di valore, da 0 (il 2) a 9 (l'Asso).
+     */
+    public static int valueIndex(Card card) {
+        return card.isAce() ? ACE : card.getValue() - 2;
+    }
+
+    /**
+     * Restituisce il valore hard di un indice di valore, con l'Asso che vale 1.
+     *
+     * @param valueIndex L'indice di valore.
+     * @return Il valore della carta.
+     */
+    public static int hardValue(int valueIndex) {
+        return valueIndex == ACE ? 1 : valueIndex + 2;
+    }
+
+    /**
+     * Restituisce la composizione di uno shoe completo.
+     *
+     * @param numDecks Numero di mazzi dello shoe.
+     * @return La composizione per valore.
+     */
+    public static int[] fullShoe(int numDecks) {
+        int[] shoe = new int[VALUES];
+        for (int i = 0; i < VALUES; i++) {
+            shoe[i] = 4 * numDecks;
+        }
+        shoe[TEN] = 16 * numDecks;
+        return shoe;
+    }
+
+    /**
+     * Ricorsione sulle carte pescate dal dealer a partire da uno stato non finale.
+     *
+     * @param hard Totale hard della mano del dealer.
+     * @param ace Se la mano contiene almeno un Asso.
+     * @param shoe Composizione corrente, modificata e ripristinata durante la ricorsione.
+     * @param remaining Numero di carte nella composizione.
+     * @return La posizione in {@code results} della distribuzione degli esiti; va letta subito,
+     *         perché la cache può crescere o essere svuotata alla prossima chiamata.
+     */
+    private int outcomes(int hard, boolean ace, int[] shoe, int remaining) {
+        long key = key(shoe);
+        int state = hard * 2 + (ace ? 1 : 0);
+        int slot = find(key);
+        if (slot >= 0 && computed[slot * STATES + state]) {
+            return (slot * STATES + state) * OUTCOMES;
+        }
+
+        double[] result = new double[OUTCOMES];
+        for (int v = 0; v < VALUES; v++) {
+            int count = shoe[v];
+            if (count == 0) {
+                continue;
+            }
+            double p = (double) count / remaining;
+            int nextHard = hard + hardValue(v);
+            boolean nextAce = ace || v == ACE;
+            int sum = nextAce && nextHard <= 11 ? nextHard + 10 : nextHard;
+
+            if (sum > 21) {
+                result[BUST] += p;
+            } else if (sum >= 17) {
+                result[sum - 17] += p;
+            } else {
+                shoe[v]--;
+                int next = outcomes(nextHard, nextAce, shoe, remaining - 1);
+                shoe[v]++;
+                for (int i = 0; i < OUTCOMES; i++) {
+                    result[i] += p * results[next + i];
+                }
+            }
+        }
+        // la ricorsione può aver fatto crescere o svuotato la cache: lo slot va cercato di nuovo
+        slot = insert(key);
+        int at = (slot * STATES + state) * OUTCOMES;
+        System.arraycopy(result, 0, results, at, OUTCOMES);
+        computed[slot * STATES + state] = true;
+        return at;
+    }
+
+    /**
+     * Cerca una composizione nella cache.
+     *
+     * @param key La chiave della composizione.
+     * @return Lo slot, oppure -1 se la composizione non è memorizzata.
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key + 1) {
+                return slot;
+            } else if (keys[slot] == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Restituisce lo slot di una composizione, aggiungendola se manca. Se la cache è piena la fa
+     * crescere fino a {@link #MAX_CAPACITY}, oltre la svuota.
+     *
+     * @param key La chiave della composizione.
+     * @return Lo slot.
+     */
+    private int insert(long key) {
+        int slot = find(key);
+        if (slot >= 0) {
+            return slot;
+        }
+        if (size >= keys.length / 2) { // fattore di carico massimo 1/2
+            if (keys.length < MAX_CAPACITY) {
+                grow();
+            } else {
+                clear();
+            }
+        }
+        int mask = keys.length - 1;
+        slot = hash(key) & mask;
+        while (keys[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key + 1;
+        Arrays.fill(computed, slot * STATES, (slot + 1) * STATES, false);
+        size++;
+        return slot;
+    }
+
+    /**
+     * Raddoppia la capacità della cache, reinserendo le composizioni memorizzate.
+     */
+    private void grow() {
+        long[] oldKeys = keys;
+        boolean[] oldComputed = computed;
+        double[] oldResults = results;
+        int capacity = oldKeys.length * 2;
+        keys = new long[capacity];
+        computed = new boolean[capacity * STATES];
+        results = new double[capacity * ENTRY_DOUBLES];
+        int mask = capacity - 1;
+        for (int old = 0; old < oldKeys.length; old++) {
+            if (oldKeys[old] == 0) {
+                continue;
+            }
+            int slot = hash(oldKeys[old] - 1) & mask;
+            while (keys[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[old];
+            System.arraycopy(oldComputed, old * STATES, computed, slot * STATES, STATES);
+            System.arraycopy(oldResults, old * ENTRY_DOUBLES, results, slot * ENTRY_DOUBLES, ENTRY_DOUBLES);
+        }
+    }
+
+    /**
+     * Mescola i bit di una chiave per l'indirizzamento aperto.
+     *
+     * @param key La chiave.
+     * @return L'hash.
+     */
+    private static int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+
+    /**
+     * Codifica una composizione in un long: 6 bit per ciascun valore tranne il 10, che ne usa 8.
+     * Bastano per uno shoe da 8 mazzi (32 carte per valore, 128 carte da 10).
+     *
+     * @param shoe La composizione.
+     * @return La chiave della composizione.
+     */
+    private static long key(int[] shoe) {
+        long key = 0;
+        for (int v = 0; v < VALUES; v++) {
+            key = (key << (v == TEN ? 8 : 6)) | shoe[v];
+        }
+        return key;
+    }
+
+    /**
+     * Conta le carte di una composizione.
+     *
+     * @param shoe La composizione.
+     * @return Il numero di carte.
+     */
+    private static int total(int[] shoe) {
+        int total = 0;
+        for (int count : shoe) {
+            total += count;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,326 @@
+package strategy;
+
+import model.Card;
+import model.Deck;
+import model.Hand;
+import model.Player;
+
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Classe StrategyOptimizer che cerca per simulazione la tabella hit/stand migliore contro il dealer
+ * di {@link Player#playDealerHand(Hand, Deck)}, senza usare la ricorsione di
+ * {@link BasicStrategyGenerator}: basta cambiare le regole del dealer o dell'esito per ottenere la
+ * strategia della variante.
+ * <p>
+ * La ricerca è un hill climbing: si parte dalla strategia che imita il dealer (chiedere carta sotto
+ * 17) e a ogni passo si valutano tutte le tabelle che differiscono dalla corrente in una sola
+ * casella, tenendo la migliore finché nessun cambio migliora il risultato. Le tabelle candidate
+ * vengono valutate in parallelo su un {@link ForkJoinPool}, e ogni valutazione è a sua volta divisa
+ * in blocchi di round.
+ * <p>
+ * Tutte le tabelle giocano gli stessi round (common random numbers): per ogni round sono fissate le
+ * carte iniziali, le carte che il giocatore riceverebbe chiedendo carta e la mano finale del dealer,
+ * che non dipende dalle scelte del giocatore. Due tabelle che differiscono in una casella ottengono
+ * quindi risultati diversi solo nei round che passano da quella casella, e il confronto ha una
+ * varianza molto più bassa che con shoe indipendenti. Il valore atteso della tabella finale viene
+ * misurato su un secondo insieme di round, generato con un altro seme, per non premiare le caselle
+ * scelte per caso sul primo.
+ */
+public class StrategyOptimizer {
+
+    private static final int HIT_CARDS = 12;              // carte riservate alle richieste del giocatore in ogni round
+    private static final int ROUND_BYTES = 4 + HIT_CARDS; // prima carta, seconda carta, carta scoperta, totale del dealer, richieste
+    private static final int CHUNK_ROUNDS = 1 << 16;      // round per blocco di una valutazione
+    private static final int MIN_HARD = 4;
+    private static final int MIN_SOFT = 12;
+
+    private final int numDecks;
+    private final ForkJoinPool pool;
+
+    /**
+     * Costruttore della classe StrategyOptimizer.
+     *
+     * @param numDecks Numero di mazzi dello shoe.
+     * @param pool Il pool su cui valutare le tabelle.
+     */
+    public StrategyOptimizer(int numDecks, ForkJoinPool pool) {
+        this.numDecks = numDecks;
+        this.pool = pool;
+    }
+
+    /**
+     * Genera i round su cui valutare le tabelle, distribuendo da uno shoe come nel gioco.
+     * Dopo le carte iniziali vengono riservate le carte per le richieste del giocatore; il dealer
+     * gioca con le carte successive. Le carte riservate e non usate vengono scartate, come se
+     * fossero state bruciate.
+     *
+     * @param rounds Numero di round.
+     * @param seed Seme dello shoe.
+     * @return I round, {@value #ROUND_BYTES} byte ciascuno.
+     */
+    public byte[] scenarios(int rounds, long seed) {
+        byte[] scenarios = new byte[rounds * ROUND_BYTES];
+        Deck deck = new Deck(numDecks, new Random(seed));
+        Hand dealer = new Hand();
+        Hand player = new Hand();
+        for (int r = 0, at = 0; r < rounds; r++, at += ROUND_BYTES) {
+            deck.shuffleIfNeeded();
+            dealer.clear();
+            player.clear();
+            Player.dealInitialHands(deck, dealer, player);
+            scenarios[at] = (byte) hardValue(player.getHand().get(0));
+            scenarios[at + 1] = (byte) hardValue(player.getHand().get(1));
+            scenarios[at + 2] = (byte) DealerProbabilities.valueIndex(dealer.getHand().get(1));
+            for (int i = 0; i < HIT_CARDS; i++) {
+                if (deck.needsShuffle()) {
+                    deck.shuffle(); // il round continua con uno shoe nuovo
+                }
+                scenarios[at + 4 + i] = (byte) hardValue(deck.drawCard());
+            }
+            if (deck.needsShuffle()) {
+                deck.shuffle();
+            }
+            Player.playDealerHand(dealer, deck);
+            scenarios[at + 3] = (byte) Math.min(dealer.getSum(), 22); // oltre 21 conta solo lo sballo
+        }
+        return scenarios;
+    }
+
+    /**
+     * Cerca la tabella migliore.
+     *
+     * @param start La tabella da cui partire.
+     * @param scenarios I round su cui confrontare le tabelle.
+     * @param maxSteps Numero massimo di caselle cambiate.
+     * @return La tabella migliore trovata.
+     */
+    public byte[] optimize(byte[] start, byte[] scenarios, int maxSteps) {
+        int[] cells = cells();
+        byte[] best = start.clone();
+        long bestNet = evaluate(best, scenarios);
+        for (int step = 0; step < maxSteps; step++) {
+            List<ForkJoinTask<Long>> tasks = new ArrayList<>(cells.length);
+            for (int cell : cells) {
+                byte[] candidate = best.clone();
+                candidate[cell] ^= 1; // HIT <-> STAND
+                tasks.add(pool.submit(new Evaluation(candidate, scenarios, 0, scenarios.length / ROUND_BYTES)));
+            }
+            int bestCell = -1;
+            for (int i = 0; i < cells.length; i++) {
+                long net = tasks.get(i).join();
+                if (net > bestNet) {
+                    bestNet = net;
+                    bestCell = cells[i];
+                }
+            }
+            if (bestCell < 0) {
+                break; // nessun cambio di una casella migliora la tabella
+            }
+            best[bestCell] ^= 1;
+            System.out.printf("Step %d: %s -> %s, EV %+.5f%n", step + 1, describe(bestCell),
+                    best[bestCell] == BasicStrategy.HIT ? "hit" : "stand", (double) bestNet / (scenarios.length / ROUND_BYTES));
+        }
+        return best;
+    }
+
+    /**
+     * Calcola il valore atteso di una tabella, in puntate per round.
+     *
+     * @param table La tabella.
+     * @param scenarios I round.
+     * @return Il valore atteso.
+     */
+    public double expectedValue(byte[] table, byte[] scenarios) {
+        return (double) evaluate(table, scenarios) / (scenarios.length / ROUND_BYTES);
+    }
+
+    /**
+     * Gioca tutti i round con una tabella sul pool.
+     *
+     * @param table La tabella.
+     * @param scenarios I round.
+     * @return Il guadagno netto: vittorie meno sconfitte.
+     */
+    private long evaluate(byte[] table, byte[] scenarios) {
+        return pool.invoke(new Evaluation(table, scenarios, 0, scenarios.length / ROUND_BYTES));
+    }
+
+    /**
+     * Restituisce la tabella che imita il dealer: chiedere carta sotto 17, soft compreso.
+     *
+     * @return La tabella.
+     */
+    public static byte[] dealerMimic() {
+        byte[] table = new byte[BasicStrategy.SIZE];
+        for (int total = 0; total < 17; total++) {
+            for (int up = 0; up < DealerProbabilities.VALUES; up++) {
+                table[BasicStrategy.key(total, false, up)] = BasicStrategy.HIT;
+                table[BasicStrategy.key(total, true, up)] = BasicStrategy.HIT;
+            }
+        }
+        return table;
+    }
+
+    /**
+     * Restituisce le caselle raggiungibili in gioco: totali hard da 4 a 20 e soft da 12 a 20.
+     *
+     * @return Le chiavi delle caselle.
+     */
+    private static int[] cells() {
+        int[] cells = new int[(21 - MIN_HARD + 21 - MIN_SOFT) * DealerProbabilities.VALUES];
+        int n = 0;
+        for (int up = 0; up < DealerProbabilities.VALUES; up++) {
+            for (int total = MIN_HARD; total <= 20; total++) {
+                cells[n++] = BasicStrategy.key(total, false, up);
+            }
+            for (int total = MIN_SOFT; total <= 20; total++) {
+                cells[n++] = BasicStrategy.key(total, true, up);
+            }
+        }
+        return cells;
+    }
+
+    /**
+     * Descrive una casella, ad esempio "soft 18 vs 9".
+     *
+     * @param key La chiave della casella.
+     * @return La descrizione.
+     */
+    private static String describe(int key) {
+        int up = key % DealerProbabilities.VALUES;
+        int row = key / DealerProbabilities.VALUES;
+        int totals = BasicStrategy.SIZE / DealerProbabilities.VALUES / 2;
+        boolean soft = row >= totals;
+        int total = soft ? row - totals : row;
+        return (soft ? "soft " : "hard ") + total + " vs " + (up == DealerProbabilities.ACE ? "A" : String.valueOf(up + 2));
+    }
+
+    /**
+     * Restituisce il valore hard di una carta, con l'Asso che vale 1.
+     *
+     * @param card La carta.
+     * @return Il valore.
+     */
+    private static int hardValue(Card card) {
+        return DealerProbabilities.hardValue(DealerProbabilities.valueIndex(card));
+    }
+
+    /**
+     * Valutazione di una tabella su un intervallo di round, divisa a metà finché l'intervallo
+     * supera {@value #CHUNK_ROUNDS} round.
+     */
+    private static class Evaluation extends RecursiveTask<Long> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] table;
+        private final byte[] scenarios;
+        private final int from;
+        private final int to;
+
+        Evaluation(byte[] table, byte[] scenarios, int from, int to) {
+            this.table = table;
+            this.scenarios = scenarios;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > CHUNK_ROUNDS) {
+                int middle = (from + to) >>> 1;
+                Evaluation left = new Evaluation(table, scenarios, from, middle);
+                left.fork();
+                long right = new Evaluation(table, scenarios, middle, to).compute();
+                return left.join() + right;
+            }
+            long net = 0;
+            for (int r = from, at = from * ROUND_BYTES; r < to; r++, at += ROUND_BYTES) {
+                net += play(at);
+            }
+            return net;
+        }
+
+        /**
+         * Gioca un round con le stesse regole di {@link Player}: a 21 o oltre il turno passa al
+         * dealer e l'esito è quello di {@link Player#evaluate(int, int)}; il pareggio restituisce
+         * la puntata.
+         *
+         * @param at Posizione del round.
+         * @return +1 per una vittoria, 0 per un pareggio, -1 per una sconfitta.
+         */
+        private int play(int at) {
+            int first = scenarios[at];
+            int second = scenarios[at + 1];
+            int up = scenarios[at + 2];
+            int dealer = scenarios[at + 3];
+            int hard = first + second;
+            boolean ace = first == 1 || second == 1;
+            int total = ace && hard <= 11 ? hard + 10 : hard;
+            for (int i = 0; total < 21; i++) {
+                if (table[BasicStrategy.key(total, ace && hard <= 11, up)] != BasicStrategy.HIT) {
+                    break;
+                }
+                int card = scenarios[at + 4 + i % HIT_CARDS]; // oltre le carte riservate si riusano, caso quasi impossibile
+                hard += card;
+                ace |= card == 1;
+                total = ace && hard <= 11 ? hard + 10 : hard;
+            }
+            switch (Player.evaluate(total, dealer)) {
+                case WIN:
+                    return 1;
+                case TIE:
+                    return 0;
+                default:
+                    return -1;
+            }
+        }
+    }
+
+    /**
+     * Cerca la strategia da riga di comando e salva la tabella migliore con il suo valore atteso,
+     * in un file di testo con lo stesso nome e l'estensione ".txt".
+     *
+     * @param args [file della tabella] [round] [mazzi] [seme]
+     * @throws IOException se i file non sono scrivibili.
+     */
+    public static void main(String[] args) throws IOException {
+        String path = args.length > 0 ? args[0] : "strategy-optimized.bin";
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int numDecks = args.length > 2 ? Integer.parseInt(args[2]) : 4;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 42L;
+
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            StrategyOptimizer optimizer = new StrategyOptimizer(numDecks, pool);
+            long start = System.nanoTime();
+            byte[] training = optimizer.scenarios(rounds, seed);
+            byte[] holdout = optimizer.scenarios(rounds, seed ^ 0x5DEECE66DL);
+            byte[] best = optimizer.optimize(dealerMimic(), training, 1000);
+            double ev = optimizer.expectedValue(best, holdout);
+            BasicStrategy strategy = new BasicStrategy(numDecks, best);
+
+            strategy.save(path);
+            String report = String.format("Decks: %d, rounds: %d, seed: %d%nEV: %+.5f (dealer mimic %+.5f, total-dependent basic strategy %+.5f)%n%s",
+                    numDecks, rounds, seed, ev, optimizer.expectedValue(dealerMimic(), holdout),
+                    optimizer.expectedValue(BasicStrategyGenerator.generate(numDecks).table(), holdout), strategy);
+            try (Writer writer = new FileWriter(path + ".txt", StandardCharsets.UTF_8)) {
+                writer.write(report);
+            }
+            System.out.print(report);
+            System.out.printf("Optimized in %.1f s%n", (System.nanoTime() - start) / 1e9);
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package util;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Classe GameExecutors che crea gli executor e i thread usati dal gioco e dai server. Sta in un
+ * package a sé perché il controller del gioco non dipenda dal package dei server.
+ * <p>
+ * Sui JDK che supportano i virtual thread (21 e successivi) viene creato un executor con un
+ * virtual thread per task; sui JDK precedenti si usa un piccolo pool di thread daemon.
+ */
+public final class GameExecutors {
+
+    private GameExecutors() { }
+
+    /**
+     * Crea un executor leggero per eseguire le azioni dei tavoli.
+     *
+     * @param name Prefisso del nome dei thread, usato se i virtual thread non sono disponibili.
+     * @return L'executor.
+     */
+    public static ExecutorService newTaskExecutor(String name) {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), daemonThreads(name));
+        }
+    }
+
+    /**
+     * Crea una factory di thread daemon con nome numerato.
+     *
+     * @param name Prefisso del nome dei thread.
+     * @return La factory.
+     */
+    public static ThreadFactory daemonThreads(String name) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package view;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.Clip;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Classe AudioEngine che gestisce gli effetti sonori e la musica del gioco.
+ * <p>
+ * Ogni file WAV viene letto e decodificato in PCM una sola volta; i campioni vengono caricati in
+ * un piccolo gruppo di Clip riutilizzabili, così ogni riproduzione è solo un riavvio di una linea
+ * già aperta. Il numero di linee audio aperte resta quindi fisso per tutta la sessione; la musica,
+ * che non si sovrappone a sé stessa, usa una sola Clip.
+ * <p>
+ * La decodifica avviene fuori da ogni lock: ogni file ha un {@link Future} nella cache, creato dal
+ * primo thread che lo chiede, e chi chiede lo stesso file nel frattempo attende solo quel file.
+ */
+public final class AudioEngine {
+
+    private static final int POOL_SIZE = 4; // riproduzioni sovrapposte dello stesso effetto
+
+    private static final Sound MUTE = new Sound(new Clip[0]);
+
+    private static final Map<String, Future<Sound>> SOUNDS = new ConcurrentHashMap<>();
+    private static Sound music; // musica di sottofondo in riproduzione, se presente; protetta dal lock della classe
+
+    private AudioEngine() { }
+
+    /**
+     * Decodifica in anticipo i file indicati, così la prima riproduzione non deve leggere il disco.
+     *
+     * @param audioFilePaths Percorsi dei file audio.
+     */
+    public static void preload(String... audioFilePaths) {
+        for (String path : audioFilePaths) {
+            sound(path, POOL_SIZE);
+        }
+    }
+
+    /**
+     * Decodifica in anticipo la musica di sottofondo, con la sola Clip usata da {@link #playMusic}.
+     *
+     * @param audioFilePath Percorso del file audio della musica.
+     */
+    public static void preloadMusic(String audioFilePath) {
+        sound(audioFilePath, 1);
+    }
+
+    /**
+     * Riproduce un effetto sonoro.
+     *
+     * @param audioFilePath Percorso del file audio.
+     */
+    public static void play(String audioFilePath) {
+        sound(audioFilePath, POOL_SIZE).play();
+    }
+
+    /**
+     * Avvia la musica di sottofondo in ciclo continuo, se non è già in riproduzione.
+     *
+     * @param audioFilePath Percorso del file audio della musica.
+     */
+    public static void playMusic(String audioFilePath) {
+        Sound sound = sound(audioFilePath, 1);
+        synchronized (AudioEngine.class) {
+            if (isMusicPlaying()) {
+                return;
+            }
+            music = sound;
+            music.loop();
+        }
+    }
+
+    /**
+     * Interrompe la musica di sottofondo. La linea resta aperta per la prossima riproduzione.
+     */
+    public static synchronized void stopMusic() {
+        if (music != null) {
+            music.stop();
+            music = null;
+        }
+    }
+
+    /**
+     * Indica se la musica di sottofondo è in riproduzione.
+     *
+     * @return true se la musica è in riproduzione.
+     */
+    public static synchronized boolean isMusicPlaying() {
+        return music != null && music.isRunning();
+    }
+
+    /**
+     * Chiude tutte le linee audio aperte.
+     */
+    public static synchronized void shutdown() {
+        for (Future<Sound> sound : SOUNDS.values()) {
+            if (sound.isDone()) {
+                get(sound).close(); // un suono ancora in decodifica non ha linee da chiudere finché non termina
+            }
+        }
+        SOUNDS.clear();
+        music = null;
+    }
+
+    /**
+     * Restituisce il suono associato a un file, caricandolo alla prima richiesta sul thread
+     * chiamante. Un file che non si riesce a caricare viene ricordato come muto e non viene riletto.
+     *
+     * @param path Percorso del file audio.
+     * @param clipCount Numero di Clip da aprire se il file non è ancora stato caricato.
+     * @return Il suono.
+     */
+    private static Sound sound(String path, int clipCount) {
+        Future<Sound> sound = SOUNDS.get(path);
+        if (sound == null) {
+            FutureTask<Sound> task = new FutureTask<>(() -> load(path, clipCount));
+            sound = SOUNDS.putIfAbsent(path, task);
+            if (sound == null) {
+                sound = task;
+                task.run();
+            }
+        }
+        return get(sound);
+    }
+
+    /**
+     * Attende un suono in decodifica.
+     *
+     * @param sound Il suono.
+     * @return Il suono decodificato, muto se il thread viene interrotto.
+     */
+    private static Sound get(Future<Sound> sound) {
+        try {
+            return sound.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return MUTE;
+        } catch (ExecutionException e) {
+            e.printStackTrace();
+            return MUTE;
+        }
+    }
+
+    /**
+     * Legge e decodifica un file audio e apre il gruppo di Clip che lo riproducono.
+     *
+     * @param path Percorso del file audio.
+     * @param clipCount Numero di Clip, cioè di riproduzioni sovrapposte.
+     * @return Il suono, muto se il file o il dispositivo audio non sono disponibili.
+     */
+    private static Sound load(String path, int clipCount) {
+        try (AudioInputStream source = AudioSystem.getAudioInputStream(new File(path))) {
+            AudioInputStream pcm = toPcm(source);
+            AudioFormat format = pcm.getFormat();
+            byte[] data = pcm.readAllBytes();
+
+            Clip[] clips = new Clip[clipCount];
+            for (int i = 0; i < clips.length; i++) {
+                clips[i] = AudioSystem.getClip();
+                clips[i].open(format, data, 0, data.length);
+            }
+            return new Sound(clips);
+        } catch (UnsupportedAudioFileException | IOException | LineUnavailableException | IllegalArgumentException e) {
+            e.printStackTrace();
+            return MUTE;
+        }
+    }
+
+    /**
+     * Converte uno stream audio in PCM lineare a 16 bit, se non lo è già.
+     *
+     * @param source Lo stream originale.
+     * @return Lo stream in PCM.
+     */
+    private static AudioInputStream toPcm(AudioInputStream source) {
+        AudioFormat format = source.getFormat();
+        if (AudioFormat.Encoding.PCM_SIGNED.equals(format.getEncoding())
+                || AudioFormat.Encoding.PCM_UNSIGNED.equals(format.getEncoding())) {
+            return source;
+        }
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                format.getChannels(), format.getChannels() * 2, format.getSampleRate(), false);
+        return AudioSystem.getAudioInputStream(pcm, source);
+    }
+
+    /**
+     * Un effetto sonoro decodificato, riprodotto a turno dalle Clip del suo gruppo. Le
+     * riproduzioni dello stesso suono sono serializzate dal suo lock.
+     */
+    private static final class Sound {
+        private final Clip[] clips;
+        private int next;
+
+        Sound(Clip[] clips) {
+            this.clips = clips;
+        }
+
+        /**
+         * Riproduce il suono dall'inizio sulla prossima Clip del gruppo.
+         */
+        synchronized void play() {
+            if (clips.length == 0) {
+                return;
+            }
+            Clip clip = clips[next];
+            next = (next + 1) % clips.length;
+            clip.stop();
+            clip.setFramePosition(0);
+            clip.start();
+        }
+
+        /**
+         * Riproduce il suono in ciclo continuo sulla prima Clip.
+         */
+        void loop() {
+            if (clips.length > 0) {
+                clips[0].setFramePosition(0);
+                clips[0].loop(Clip.LOOP_CONTINUOUSLY);
+            }
+        }
+
+        /**
+         * Interrompe tutte le riproduzioni del suono.
+         */
+        void stop() {
+            for (Clip clip : clips) {
+                clip.stop();
+            }
+        }
+
+        /**
+         * Indica se il suono è in riproduzione.
+         *
+         * @return true se almeno una Clip è in riproduzione.
+         */
+        boolean isRunning() {
+            for (Clip clip : clips) {
+                if (clip.isRunning()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Chiude le Clip, liberando le linee audio.
+         */
+        void close() {
+            for (Clip clip : clips) {
+                clip.close();
+            }
+        }
+    }
+}
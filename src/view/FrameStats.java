@@ -0,0 +1,76 @@
+package view;
+
+/**
+ * Classe FrameStats che misura i tempi di disegno dei frame di gioco: numero di frame,
+ * tempo medio, tempo massimo e tempo dell'ultimo frame.
+ * <p>
+ * Va usata dal solo thread di Swing (EDT), che è quello che esegue il disegno.
+ */
+public class FrameStats {
+
+    private long frames;
+    private long totalNanos;
+    private long maxNanos;
+    private long lastNanos;
+
+    /**
+     * Registra la durata di un frame.
+     *
+     * @param nanos Durata del frame in nanosecondi.
+     */
+    public void record(long nanos) {
+        frames++;
+        totalNanos += nanos;
+        lastNanos = nanos;
+        if (nanos > maxNanos) {
+            maxNanos = nanos;
+        }
+    }
+
+    /**
+     * Restituisce il numero di frame disegnati.
+     *
+     * @return Il numero di frame.
+     */
+    public long getFrames() {
+        return frames;
+    }
+
+    /**
+     * Restituisce il tempo medio di disegno di un frame.
+     *
+     * @return Il tempo medio in millisecondi.
+     */
+    public double getAverageMillis() {
+        return frames == 0 ? 0 : totalNanos / 1_000_000.0 / frames;
+    }
+
+    /**
+     * Restituisce il tempo massimo di disegno di un frame.
+     *
+     * @return Il tempo massimo in millisecondi.
+     */
+    public double getMaxMillis() {
+        return maxNanos / 1_000_000.0;
+    }
+
+    /**
+     * Restituisce il tempo di disegno dell'ultimo frame.
+     *
+     * @return Il tempo dell'ultimo frame in millisecondi.
+     */
+    public double getLastMillis() {
+        return lastNanos / 1_000_000.0;
+    }
+
+    /**
+     * Restituisce un riepilogo dei tempi di disegno.
+     *
+     * @return Il riepilogo.
+     */
+    @Override
+    public String toString() {
+        return String.format("Frames: %d, avg %.3f ms, max %.3f ms, last %.3f ms",
+                frames, getAverageMillis(), getMaxMillis(), getLastMillis());
+    }
+}
@@ -1,30 +1,46 @@
 package view;
 
 import controller.Controller;
+import metrics.GameMetrics;
+import model.EventBus;
+import model.GameState;
 import model.Player;
 
 
 import javax.imageio.ImageIO;
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
 import java.util.List;
-import java.util.Observable;
-import java.util.Observer;
 
 /**
  * Classe GameGUI che gestisce l'interfaccia grafica del gioco Blackjack.
  */
-@SuppressWarnings({ "deprecation" })
-public class GameGUI extends JFrame implements Observer {
-
-    private static Clip cardClip;
+public class GameGUI extends JFrame {
+
+    // Font e colori creati una sola volta invece che a ogni frame
+    private static final Color FELT = new Color(35, 101, 51);
+    private static final Color CELL = new Color(88, 57, 39);
+    private static final Color BUTTON_BACKGROUND = new Color(91, 91, 91);
+    private static final Font SCORE_FONT = new Font("Arial", Font.BOLD, 20);
+    private static final Font BUTTON_FONT = new Font("Typewriter", Font.ITALIC, 14);
+    private static final Font BOT_FONT = new Font("Arial", Font.BOLD, 13);
+
+    // Zone che cambiano durante un round: carte e punteggio del dealer, riga dei bot, carte e punteggio del giocatore
+    private static final Rectangle[] DIRTY_REGIONS = {
+            new Rectangle(400, 40, 600, 170),
+            new Rectangle(400, 210, 200, 35),
+            new Rectangle(0, 295, 1000, 120),
+            new Rectangle(400, 465, 200, 35),
+            new Rectangle(400, 500, 600, 170)
+    };
+
+    // Se la proprietà di sistema è impostata, i tempi dei frame vengono stampati alla chiusura della finestra
+    private static final boolean PRINT_FRAME_STATS = Boolean.getBoolean("blackjack.frameStats");
 
     private int cardWidth = 120;
     private int cardHeight = 170;
@@ -38,6 +54,11 @@ public class GameGUI extends JFrame implements Observer {
 
     private Image dealerImage;
     private Image avatarImage;
+    private BufferedImage background; // livello statico: tavolo, dealer e avatar
+    private boolean winnerShown;      // il messaggio del vincitore viene mostrato una sola volta per round
+    private final FrameStats frameStats = new FrameStats();
+    private EventBus<GameState>.Subscription subscription; // iscrizione agli eventi del giocatore
+    private GameState state; // ultimo stato ricevuto dal thread della logica di gioco, letto solo dal thread di Swing
     
     /**
      * Costruttore della classe GameGUI.
@@ -50,7 +71,8 @@ public class GameGUI extends JFrame implements Observer {
         this.player = player;
         initialize(); // Inizializza l'interfaccia grafica
         setupButtons(); // Imposta i pulsanti e i loro gestori di eventi
-        this.player.addObserver(this); // Aggiunge se stesso come osservatore del giocatore
+        // Si iscrive ai cambiamenti di stato del giocatore, ricevuti sul thread di Swing
+        this.subscription = this.player.subscribe(this::update, SwingUtilities::invokeLater);
 
         try {
         dealerImage = ImageIO.read(new File("src/resources/dealer.png"));
@@ -79,7 +101,7 @@ public class GameGUI extends JFrame implements Observer {
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE); // Imposta l'operazione di chiusura
         setLocationRelativeTo(null); // Centra la finestra sullo schermo
         setLayout(new BorderLayout()); // Imposta il layout della finestra
-        setBackground(new Color(35, 101, 51)); // Imposta il colore di sfondo
+        setBackground(FELT); // Imposta il colore di sfondo
         setResizable(false); // Impedisce il ridimensionamento della finestra
 
         // Pannello principale del gioco
@@ -93,12 +115,13 @@ public class GameGUI extends JFrame implements Observer {
         };
         
         gamePanel.setLayout(new BorderLayout()); // Imposta il layout del pannello
-        gamePanel.setBackground(new Color(35, 101, 51)); // Imposta il colore di sfondo del pannello
+        gamePanel.setBackground(FELT); // Imposta il colore di sfondo del pannello
+        gamePanel.setDoubleBuffered(true); // Disegna fuori schermo e copia il risultato in un solo passaggio
 
         
     
         buttonPanel = new JPanel(); // Pannello per i pulsanti
-        buttonPanel.setBackground(new Color(35, 101, 51)); // Imposta il colore di sfondo del pannello dei pulsanti
+        buttonPanel.setBackground(FELT); // Imposta il colore di sfondo del pannello dei pulsanti
 
         add(gamePanel, BorderLayout.CENTER); // Aggiunge il pannello del gioco al centro della finestra
         add(buttonPanel, BorderLayout.SOUTH); // Aggiunge il pannello dei pulsanti nella parte inferiore della finestra
@@ -115,8 +138,8 @@ public class GameGUI extends JFrame implements Observer {
     public JButton createButton(String text) {
         JButton button = new JButton(text); // Crea un nuovo pulsante con il testo specificato
         button.setFocusable(false); // Disabilita il focus sul pulsante
-        button.setFont(new Font("Typewriter", Font.ITALIC, 14)); // Imposta il font del testo del pulsante
-        button.setBackground(new Color(91, 91, 91)); // Imposta il colore di sfondo del pulsante
+        button.setFont(BUTTON_FONT); // Imposta il font del testo del pulsante
+        button.setBackground(BUTTON_BACKGROUND); // Imposta il colore di sfondo del pulsante
         button.setForeground(Color.yellow); // Imposta il colore del testo del pulsante
         button.setPreferredSize(new Dimension(200, 35)); // Imposta le dimensioni preferite del pulsante
 
@@ -194,94 +217,154 @@ public class GameGUI extends JFrame implements Observer {
     }
 
     /**
-     * Metodo per disegnare il contenuto del gioco nel pannello di gioco.
+     * Metodo per disegnare il contenuto del gioco nel pannello di gioco. Il tavolo, il dealer e
+     * l'avatar vengono copiati dal livello statico; carte e punteggi sono disegnati sopra.
      *
      * @param g Oggetto Graphics per disegnare il contenuto.
      */
     public void drawGame(Graphics g) {
+        long start = System.nanoTime();
         try {
-            Image hiddenCardImage = controller.getHiddenCardImage(stayButton.isEnabled()); // Ottiene l'immagine della carta nascosta o visibile del dealer
-            String dealerInitialValue = controller.getDealerInitialValue(stayButton.isEnabled()); // Ottiene il valore iniziale del dealer
-            List<String> playerSums = controller.getPlayerSums(); // Ottiene i punteggi dei giocatori e del dealer
-            List<Controller.CardImageData> dealerCards = controller.getDealerCardsData(stayButton.isEnabled(), 400 + cardWidth - 75, 40); // Ottiene i dati delle carte del dealer
-            List<Controller.CardImageData> player1Cards = controller.getPlayerCardsData(player.getPlayer1(), 400, 500, false); // Ottiene i dati delle carte del giocatore
-            
-            g.drawImage(hiddenCardImage, 400, 40, cardWidth, cardHeight, null);
-            g.drawImage(dealerImage, 100, 0, 350, 300, null);
-            g.drawImage(avatarImage, 200,470,180,200,null);
+            g.drawImage(getBackgroundLayer(), 0, 0, null); // Tavolo, dealer e avatar
+            GameState state = this.state;
+            if (state == null) { // le carte non sono ancora state distribuite
+                return;
+            }
+            boolean hideDealer = stayButton.isEnabled() && !state.isRoundOver(); // la carta nascosta si scopre a fine turno
+            Image hiddenCardImage = controller.getHiddenCardImage(state, hideDealer); // Ottiene l'immagine della carta nascosta o visibile del dealer
+            String dealerInitialValue = controller.getDealerInitialValue(state, hideDealer); // Ottiene il valore iniziale del dealer
+            List<String> playerSums = controller.getPlayerSums(state); // Ottiene i punteggi dei giocatori e del dealer
+            List<Controller.CardImageData> dealerCards = controller.getDealerCardsData(state, hideDealer, 400 + cardWidth - 75, 40); // Ottiene i dati delle carte del dealer
+            List<Controller.CardImageData> player1Cards = controller.getPlayerCardsData(state.getPlayerCards(), 400, 500, false); // Ottiene i dati delle carte del giocatore
 
-            g.setFont(new Font("Arial", Font.BOLD, 20)); // Imposta il font per il testo
-            g.setColor(Color.black); // Imposta il colore del testo
+            g.drawImage(hiddenCardImage, 400, 40, cardWidth, cardHeight, null);
 
-            
+            g.setFont(SCORE_FONT); // Imposta il font per il testo
 
            // Disegna la cella per il punteggio del giocatore
-            g.setColor(new Color(88,57,39)); // Colore di sfondo della cella
+            g.setColor(CELL); // Colore di sfondo della cella
             g.fillRoundRect(400, 470, 105, 25,15,15); // Cella per il punteggio del giocatore
             g.setColor(Color.BLACK); // Colore del testo
             g.drawString(playerSums.get(0), 400, 490); // Disegna il punteggio del giocatore
 
             // Disegna la cella per il punteggio del dealer
-            g.setColor(new Color(88,57,39)); // Colore di sfondo della cella
+            g.setColor(CELL); // Colore di sfondo della cella
             g.fillRoundRect(400, 215, 105, 25,15,15); // Cella per il punteggio del dealer
             g.setColor(Color.BLACK); // Colore del testo
             g.drawString(dealerInitialValue, 400, 235); // Disegna il punteggio del dealer
-            // Disegna le carte del dealer, del giocatore e dei bot
+            // Disegna le carte del dealer e del giocatore
             drawCards(g, dealerCards);
             drawCards(g, player1Cards);
-            
-
-            // Se il gioco è terminato (pulsante "STAY" disabilitato), disegna il messaggio del vincitore
-            if (!stayButton.isEnabled()) {
-                getWinnerMessage();
-                
-                
-            }
+            drawBots(g, state);
         } catch (Exception e) {
             e.printStackTrace();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            frameStats.record(elapsed);
+            GameMetrics.DRAW_GAME.record(elapsed);
         }
     }
 
     /**
-     * Metodo dell'interfaccia Observer per aggiornare l'interfaccia grafica in base agli eventi osservati.
+     * Disegna i bot in una riga tra il dealer e il giocatore: carte a metà dimensione e punteggio.
      *
-     * @param o   Oggetto osservabile che notifica l'evento (in questo caso, Player).
-     * @param arg Argomento opzionale passato dall'oggetto osservabile.
+     * @param g Oggetto Graphics per disegnare i bot.
+     * @param state Lo stato del round da disegnare.
      */
-    public void update(Observable o, Object arg) {
-        if (o instanceof Player) {
-            Player player = (Player) o;
-            // Se il giocatore supera 21 o raggiunge 21, disabilita i pulsanti "HIT" e "STAY"
-            if (player.getPlayer1().getSum() > 21 || player.getPlayer1().getSum() == 21) {
+    private void drawBots(Graphics g, GameState state) {
+        g.setFont(BOT_FONT);
+        for (int seat = 1; seat < state.getSeatCount(); seat++) {
+            int x = 10 + (seat - 1) * 165;
+            drawCards(g, controller.getBotCardsData(state, seat, x, 300));
+            g.setColor(CELL);
+            g.fillRoundRect(x, 390, 150, 20, 10, 10);
+            g.setColor(Color.BLACK);
+            g.drawString(controller.getBotSum(state, seat), x + 5, 405);
+        }
+    }
+
+    /**
+     * Restituisce il livello statico del tavolo, creandolo al primo utilizzo o se la
+     * dimensione del pannello è cambiata. Il dealer e l'avatar vengono ridimensionati una sola volta.
+     *
+     * @return L'immagine con tavolo, dealer e avatar.
+     */
+    private BufferedImage getBackgroundLayer() {
+        int width = Math.max(1, gamePanel.getWidth());
+        int height = Math.max(1, gamePanel.getHeight());
+        if (background == null || background.getWidth() != width || background.getHeight() != height) {
+            background = getGraphicsConfiguration() != null
+                    ? getGraphicsConfiguration().createCompatibleImage(width, height)
+                    : new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = background.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            g.setColor(FELT);
+            g.fillRect(0, 0, width, height);
+            g.drawImage(dealerImage, 100, 0, 350, 300, null);
+            g.drawImage(avatarImage, 200, 470, 180, 200, null);
+            g.dispose();
+        }
+        return background;
+    }
+
+    /**
+     * Metodo per aggiornare l'interfaccia grafica quando cambia lo stato del round.
+     * Vengono ridisegnate solo le zone delle carte e dei punteggi.
+     *
+     * @param state Lo stato più recente del round.
+     */
+    public void update(GameState state) {
+        if (isDisplayable()) { // le finestre già chiuse non vanno aggiornate
+            this.state = state;
+            // Se il giocatore supera 21 o raggiunge 21 il round è concluso: disabilita i pulsanti "HIT" e "STAY"
+            if (state.isRoundOver()) {
                 hitButton.setEnabled(false);
                 hitButton.setForeground(Color.RED);
                 stayButton.setEnabled(false);
                 stayButton.setForeground(Color.RED);
             }
-            repaint(); // Ridisegna l'interfaccia grafica
+            for (Rectangle region : DIRTY_REGIONS) {
+                gamePanel.repaint(region); // Ridisegna solo le zone che cambiano
+            }
+            // Se il round è terminato, mostra il messaggio del vincitore
+            if (state.isRoundOver() && !winnerShown) {
+                winnerShown = true;
+                getWinnerMessage(state);
+            }
         }
     }
 
+    /**
+     * Restituisce le statistiche sui tempi di disegno dei frame.
+     *
+     * @return Le statistiche dei frame.
+     */
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Chiude la finestra e annulla l'iscrizione agli eventi del giocatore; se richiesto stampa
+     * i tempi di disegno dei frame.
+     */
+    @Override
+    public void dispose() {
+        if (subscription != null) {
+            subscription.close();
+        }
+        if (PRINT_FRAME_STATS) {
+            System.out.println("GameGUI " + frameStats);
+        }
+        super.dispose();
+    }
+
     /**
      * Metodo statico per riprodurre un suono quando viene effettuata un'azione con le carte.
      *
      * @param audioFilePath Percorso del file audio da riprodurre.
      */
     public static void playCardSound(String audioFilePath) {
-        try {
-            File audioFile = new File(audioFilePath);
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile);
-            cardClip = AudioSystem.getClip();
-            cardClip.open(audioInputStream);
-            cardClip.start();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
-        try {
-            UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
-        } catch (Exception e) {
-            e.printStackTrace();
-        }
+        AudioEngine.play(audioFilePath); // Riproduce il suono già decodificato su una linea del gruppo
     }
 
     /**
@@ -290,23 +373,15 @@ public class GameGUI extends JFrame implements Observer {
      * @param audioFilePath Percorso del file audio da riprodurre.
      */
     public void playButtonClickSound(String audioFilePath) {
-        try {
-            File audioFile = new File(audioFilePath);
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile);
-            Clip clip = AudioSystem.getClip();
-            clip.open(audioInputStream);
-            clip.start();
-        } catch (Exception ex) {
-            ex.printStackTrace();
-        }
+        AudioEngine.play(audioFilePath); // Riproduce il suono già decodificato su una linea del gruppo
     }
 
-    public void getWinnerMessage() {
+    public void getWinnerMessage(GameState state) {
         SwingUtilities.invokeLater(new Runnable() {
             @Override
             public void run() {
                 try {
-                    String message = "Result: " + player.determineWinner();
+                    String message = "Result: " + player.determineWinner(state.getOutcome());
                     showCustomDialog(message,1100);
                 } catch (Exception e) {
                     e.printStackTrace();
@@ -330,7 +405,7 @@ public class GameGUI extends JFrame implements Observer {
         
 
         // Personalizzazione del dialogo
-        dialog.getContentPane().setBackground(new Color(35, 101, 51));
+        dialog.getContentPane().setBackground(FELT);
         dialog.setLocationRelativeTo(null);
         
 
@@ -1,31 +1,22 @@
 package view;
 
-import javax.sound.sampled.AudioInputStream;
-import javax.sound.sampled.AudioSystem;
-import javax.sound.sampled.Clip;
 import javax.swing.*;
 
 import controller.Controller;
 import model.Player;
+import store.StatsStore;
+import store.UserStore;
 
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
-import java.io.BufferedReader;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.ArrayList;
-import java.util.List;
 
 /**
  * Classe GameMenu che gestisce il menu principale del gioco Blackjack.
  */
 public class GameMenu extends JFrame {
-public static Clip cardClip;
-public static Clip backgroundClip;
+    /** Percorso della musica di sottofondo del menu. */
+    public static final String MUSIC_PATH = "src/resources/music.wav";
 
     public static String avatarFileName;
     public static String playerName;
@@ -49,7 +40,6 @@ public static Clip backgroundClip;
     private static JLabel avatarLabel;
 
     private Controller controller;
-    private static final String FILE_PATH = "users.csv";
 
     /**
      * Costruttore della classe GameMenu.
@@ -58,7 +48,7 @@ public static Clip backgroundClip;
      */
     public GameMenu(Controller controller) {
         this.controller = controller;
-        playSound("src/resources/music.wav"); // Avvia la riproduzione della musica di sottofondo
+        playSound(MUSIC_PATH); // Avvia la riproduzione della musica di sottofondo
 
         try {
             UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel");
@@ -207,6 +197,7 @@ public static Clip backgroundClip;
                             if (authenticate(loginInfo[0], loginInfo[1])) {
                                 JOptionPane.showMessageDialog(null, "Login successful!");
                                 playerName = loginInfo[0];
+                                Player.getInstance().setPlayerName(playerName);
                                 loggedIn = true;
                             } else {
                                 showErrorDialog("Error: Invalid username or password.");
@@ -220,8 +211,11 @@ public static Clip backgroundClip;
                     case 1: // Register
                         String[] registerInfo = promptUserInfo("Register");
                         if (registerInfo != null) {
-                            register(registerInfo[0], registerInfo[1]);
-                            showConfirmationDialog("Sign up completed.");
+                            if (register(registerInfo[0], registerInfo[1])) {
+                                showConfirmationDialog("Sign up completed.");
+                            } else {
+                                showErrorDialog("Error: Name already taken or not valid.");
+                            }
                                 } else {
                             JOptionPane.showMessageDialog(null, "Registration canceled.");
                         }
@@ -233,7 +227,10 @@ public static Clip backgroundClip;
                 }
             }
     
-            Player.resetGame(); // Reimposta il gioco del giocatore
+            if (playerName != null) {
+                // Carica le statistiche salvate dell'utente che ha effettuato l'accesso
+                Player.getInstance().setStats(StatsStore.getDefault().getStats(playerName));
+            }
         
             selectAvatar(); // Mostra la finestra di selezione dell'avatar
             dispose(); // Chiude la finestra corrente
@@ -254,7 +251,7 @@ public static Clip backgroundClip;
             if (musicToggle.isSelected()) { // Se la musica è attualmente selezionata
                 stopMusic(); // Ferma la riproduzione della musica
             } else { // Altrimenti
-                playBackgroundMusic("src/resources/music.wav"); // Avvia la riproduzione della musica di sottofondo
+                playBackgroundMusic(MUSIC_PATH); // Avvia la riproduzione della musica di sottofondo
             }
         });
     }
@@ -402,18 +399,10 @@ public static Clip backgroundClip;
      * @param audioFilePath Percorso del file audio da riprodurre.
      */
     public static void playSound(String audioFilePath) {
-        try {
-            File audioFile = new File(audioFilePath); // Crea un nuovo oggetto File con il percorso specificato
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile); // Ottiene l'input stream audio dal file
-            Clip clip = AudioSystem.getClip(); // Ottiene il clip audio dal sistema
-            clip.open(audioInputStream); // Apre il clip audio con l'input stream audio ottenuto
-            clip.start(); // Avvia la riproduzione del clip audio
-            if (audioFilePath.equals("src/resources/music.wav")) { // Se il percorso del file è quello della musica di sottofondo
-                backgroundClip = clip; // Imposta il clip della musica di sottofondo
-                backgroundClip.loop(Clip.LOOP_CONTINUOUSLY); // Imposta la riproduzione continua del clip di sottofondo
-            }
-        } catch (Exception ex) { // Gestione delle eccezioni
-            ex.printStackTrace(); // Stampa la traccia dello stack dell'eccezione
+        if (audioFilePath.equals(MUSIC_PATH)) { // Se il percorso del file è quello della musica di sottofondo
+            AudioEngine.playMusic(audioFilePath); // Riproduce la musica in ciclo continuo
+        } else {
+            AudioEngine.play(audioFilePath); // Riproduce l'effetto sonoro già decodificato
         }
     }
 
@@ -432,7 +421,7 @@ public static Clip backgroundClip;
      * @param audioFilePath Percorso del file audio della musica di sottofondo da riprodurre.
      */
     public void playBackgroundMusic(String audioFilePath) {
-        if (backgroundClip == null || !backgroundClip.isRunning()) { // Se il clip della musica di sottofondo è nullo o non è in esecuzione
+        if (!AudioEngine.isMusicPlaying()) { // Se la musica di sottofondo non è in esecuzione
             playSound(audioFilePath); // Avvia la riproduzione della musica di sottofondo utilizzando il metodo playSound
         }
     }
@@ -441,11 +430,7 @@ public static Clip backgroundClip;
      * Metodo per interrompere la riproduzione della musica di sottofondo.
      */
     public static void stopMusic() {
-        if (backgroundClip != null && backgroundClip.isRunning()) { // Se il clip della musica di sottofondo non è nullo e è in esecuzione
-            backgroundClip.stop(); // Interrompe la riproduzione del clip di sottofondo
-            backgroundClip.close(); // Chiude il clip di sottofondo
-            backgroundClip = null; // Resetta il clip
-        }
+        AudioEngine.stopMusic(); // Interrompe la musica; la linea resta aperta per la prossima riproduzione
     }
 
     /**
@@ -463,20 +448,7 @@ public static Clip backgroundClip;
      * @param audioFilePath Percorso del file audio del suono della carta da riprodurre.
      */
     public static void playCardSound(String audioFilePath) {
-        try {
-            File audioFile = new File(audioFilePath); // Crea un nuovo oggetto File con il percorso specificato
-            AudioInputStream audioInputStream = AudioSystem.getAudioInputStream(audioFile); // Ottiene l'input stream audio dal file
-            cardClip = AudioSystem.getClip(); // Ottiene il clip audio dal sistema
-            cardClip.open(audioInputStream); // Apre il clip audio con l'input stream audio ottenuto
-            cardClip.start(); // Avvia la riproduzione del clip audio
-        } catch (Exception ex) { // Gestione delle eccezioni
-            ex.printStackTrace(); // Stampa la traccia dello stack dell'eccezione
-        }
-        try {
-            UIManager.setLookAndFeel("javax.swing.plaf.nimbus.NimbusLookAndFeel"); // Imposta il look and feel Nimbus
-        } catch (Exception e) { // Gestione delle eccezioni
-            e.printStackTrace(); // Stampa la traccia dello stack dell'eccezione
-        }
+        AudioEngine.play(audioFilePath); // Riproduce il suono della carta già decodificato
     }
 
     public static String[] promptUserInfo(String action) {
@@ -507,35 +479,30 @@ public static Clip backgroundClip;
         }
     }
 
+    /**
+     * Verifica le credenziali di un utente tramite l'archivio degli utenti.
+     *
+     * @param name Nome dell'utente.
+     * @param password Password inserita.
+     * @return true se le credenziali sono corrette.
+     */
     public static boolean authenticate(String name, String password) {
-        List<String[]> users = readUsers();
-        for (String[] user : users) {
-            if (user[0].equals(name) && user[1].equals(password)) {
-                return true;
-            }
-        }
-        return false;
-    }
-
-    public static void register(String name, String password) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(FILE_PATH, true))) {
-            pw.println(name + "," + password);
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
+        return UserStore.getDefault().authenticate(name, password);
     }
 
-    public static List<String[]> readUsers() {
-        List<String[]> users = new ArrayList<>();
-        try (BufferedReader br = new BufferedReader(new FileReader(FILE_PATH))) {
-            String line;
-            while ((line = br.readLine()) != null) {
-                users.add(line.split(","));
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    /**
+     * Registra un nuovo utente nell'archivio degli utenti.
+     *
+     * @param name Nome dell'utente.
+     * @param password Password dell'utente.
+     * @return true se la registrazione è riuscita, false se il nome è già in uso o non è valido.
+     */
+    public static boolean register(String name, String password) {
+        try {
+            return UserStore.getDefault().register(name, password);
+        } catch (IllegalArgumentException e) {
+            return false;
         }
-        return users;
     }
 
     public static void showErrorDialog(String message) {
@@ -0,0 +1,87 @@
+package history;
+
+import model.Deck;
+import model.GameEngine;
+import model.Outcome;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test dello storico delle mani: scrittura, lettura e riproduzione dei round.
+ */
+class HandHistoryTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void recordedRoundsReplayIdentically() throws IOException {
+        List<Outcome> played = play(new HandHistoryWriter(directory, 1024), 300, 9);
+
+        List<File> segments = HandHistoryReader.segments(directory);
+        assertTrue(segments.size() > 1, "rounds should span several segments");
+        List<RoundRecord> rounds = readAll(segments);
+        assertEquals(played.size(), rounds.size());
+        for (int i = 0; i < rounds.size(); i++) {
+            RoundRecord record = rounds.get(i);
+            assertEquals(i, record.getRound());
+            assertEquals(played.get(i), record.getOutcome(0));
+            assertNull(Replay.verify(record));
+        }
+    }
+
+    @Test
+    void reopenedHistoryContinuesLastSegment() throws IOException {
+        play(new HandHistoryWriter(directory, 4096), 10, 1);
+        play(new HandHistoryWriter(directory, 4096), 10, 2);
+
+        List<File> segments = HandHistoryReader.segments(directory);
+        assertEquals(1, segments.size());
+        List<RoundRecord> rounds = readAll(segments);
+        assertEquals(20, rounds.size());
+        for (int i = 0; i < rounds.size(); i++) {
+            assertEquals(i, rounds.get(i).getRound());
+        }
+    }
+
+    /**
+     * Gioca dei round registrandoli e chiude lo storico.
+     *
+     * @return Gli esiti del giocatore, nell'ordine dei round.
+     */
+    private static List<Outcome> play(HandHistoryWriter writer, int rounds, long seed) {
+        GameEngine engine = new GameEngine(new Deck(2, new Random(seed)), 3, (hand, upcard) -> hand.getSum() < 17);
+        engine.setRecorder(writer);
+        List<Outcome> outcomes = new ArrayList<>();
+        for (int round = 0; round < rounds; round++) {
+            engine.startRound();
+            while (!engine.isRoundOver() && engine.getPlayerHand().getSum() < 14) {
+                engine.hit();
+            }
+            if (!engine.isRoundOver()) {
+                engine.stand();
+            }
+            outcomes.add(engine.result());
+        }
+        writer.close();
+        return outcomes;
+    }
+
+    private static List<RoundRecord> readAll(List<File> segments) throws IOException {
+        List<RoundRecord> rounds = new ArrayList<>();
+        for (File segment : segments) {
+            rounds.addAll(Replay.read(segment));
+        }
+        return rounds;
+    }
+}
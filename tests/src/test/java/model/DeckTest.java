@@ -0,0 +1,95 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test dello shoe: mescolamento, carta di taglio e conteggio delle carte.
+ */
+class DeckTest {
+
+    private static final int[] HI_LO = {1, 1, 1, 1, 1, 0, 0, 0, -1, -1, -1, -1, -1};
+
+    @Test
+    void shuffledShoeHoldsEveryCard() {
+        Deck deck = new Deck(2, new Random(7));
+        int[] seen = new int[Card.CARD_COUNT];
+        for (int i = 0; i < 2 * Card.CARD_COUNT; i++) {
+            seen[deck.drawCode()]++;
+        }
+        for (int code = 0; code < Card.CARD_COUNT; code++) {
+            assertEquals(2, seen[code], Card.of(code).toString());
+        }
+        assertEquals(0, deck.getCardsRemaining());
+    }
+
+    @Test
+    void cutCardTriggersShuffle() {
+        Deck deck = new Deck(1, 0.5, new Random(3));
+        for (int i = 0; i < Card.CARD_COUNT / 2 - 1; i++) {
+            deck.drawCode();
+        }
+        assertFalse(deck.needsShuffle());
+        deck.drawCode();
+        assertTrue(deck.needsShuffle());
+        assertTrue(deck.shuffleIfNeeded());
+        assertEquals(Card.CARD_COUNT, deck.getCardsRemaining());
+        assertEquals(0, deck.getRunningCount());
+    }
+
+    @Test
+    void countFollowsDrawnCards() {
+        Deck deck = new Deck(4, new Random(11));
+        int count = 0;
+        int[] drawn = new int[Card.ACE + 1];
+        for (int i = 0; i < 100; i++) {
+            int rank = Card.rankOf(deck.drawCode());
+            count += HI_LO[rank];
+            drawn[rank]++;
+        }
+        assertEquals(count, deck.getRunningCount());
+        for (int rank = 0; rank <= Card.ACE; rank++) {
+            assertEquals(16 - drawn[rank], deck.getRemainingOfRank(rank));
+        }
+    }
+
+    @Test
+    void midRoundReshuffleKeepsTableCardsOut() {
+        // senza carta di taglio lo shoe si esaurisce a metà round
+        Deck deck = new Deck(1, 1.0, new Random(5));
+        int[] composition = new int[10];
+        for (int round = 0; round < 2000; round++) {
+            deck.shuffleIfNeeded();
+            boolean[] onTable = new boolean[Card.CARD_COUNT];
+            for (int i = 0; i < 7; i++) {
+                int code = deck.drawCode();
+                assertFalse(onTable[code], "card dealt twice in round " + round);
+                onTable[code] = true;
+                int remaining = 0;
+                for (int n : deck.getComposition(composition)) {
+                    remaining += n;
+                }
+                assertEquals(deck.getCardsRemaining(), remaining);
+            }
+        }
+    }
+
+    @Test
+    void recordedShoeCountsOnlyRecordedCards() {
+        Deck deck = new Deck(1, new int[]{Card.code(0, 0), Card.code(0, 1), Card.code(Card.ACE, 2)});
+        assertEquals(2, deck.getRemainingOfRank(0));
+        assertEquals(1, deck.getRemainingOfRank(Card.ACE));
+        assertEquals(0, deck.getRemainingOfRank(8));
+        for (int i = 0; i < 3; i++) {
+            deck.drawCode();
+        }
+        assertThrows(IllegalStateException.class, deck::drawCode);
+        assertThrows(IllegalStateException.class, deck::shuffle);
+    }
+}
@@ -0,0 +1,71 @@
+package model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Test del motore di gioco: esiti delle mani e svolgimento dei round.
+ */
+class GameEngineTest {
+
+    @Test
+    void evaluateComparesSums() {
+        assertEquals(Outcome.BUST, Player.evaluate(22, 18));
+        assertEquals(Outcome.BUST, Player.evaluate(22, 22)); // il giocatore sballa per primo
+        assertEquals(Outcome.TIE, Player.evaluate(20, 20));
+        assertEquals(Outcome.WIN, Player.evaluate(18, 22));
+        assertEquals(Outcome.WIN, Player.evaluate(21, 20));
+        assertEquals(Outcome.LOSS, Player.evaluate(18, 20));
+    }
+
+    @Test
+    void recordedShoeIsDealtInOrder() {
+        // carta nascosta 10, carta scoperta 7, giocatore 10 e 9: il dealer sta su 17
+        int[] order = {Card.code(8, 0), Card.code(5, 0), Card.code(8, 1), Card.code(7, 0)};
+        GameEngine engine = new GameEngine(new Deck(1, order));
+
+        GameState dealt = engine.startRound();
+        assertEquals(19, dealt.getPlayerSum());
+        assertEquals(7, dealt.getVisibleDealerSum());
+
+        GameState end = engine.stand();
+        assertTrue(end.isRoundOver());
+        assertEquals(17, end.getDealerSum());
+        assertEquals(Outcome.WIN, end.getOutcome());
+    }
+
+    @Test
+    void outcomesMatchFinalHands() {
+        GameEngine engine = new GameEngine(new Deck(4, new Random(1)), 3, (hand, upcard) -> hand.getSum() < 17);
+        for (int round = 0; round < 2000; round++) {
+            engine.startRound();
+            while (!engine.isRoundOver() && engine.getPlayerHand().getSum() < 15) {
+                engine.hit();
+            }
+            if (!engine.isRoundOver()) {
+                engine.stand();
+            }
+            assertEquals(engine.result(0), engine.result());
+            for (int seat = 0; seat < engine.getSeatCount(); seat++) {
+                assertEquals(Player.evaluate(engine.getSeatHand(seat), engine.getDealerHand()), engine.result(seat));
+            }
+        }
+    }
+
+    @Test
+    void actionsOutsideRoundAreRejected() {
+        GameEngine engine = new GameEngine(new Deck(1, new Random(2)));
+        assertThrows(IllegalStateException.class, engine::hit);
+        assertThrows(IllegalStateException.class, engine::result);
+        engine.startRound();
+        if (!engine.isRoundOver()) {
+            engine.stand();
+        }
+        assertThrows(IllegalStateException.class, engine::stand);
+    }
+}
@@ -0,0 +1,70 @@
+package store;
+
+import model.Outcome;
+import model.PlayerStats;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Test dell'archivio delle statistiche: recupero del log, compattazione e lock del file.
+ */
+class StatsStoreTest {
+
+    @TempDir
+    File directory;
+
+    @Test
+    void resultsSurviveReopen() throws IOException {
+        File file = new File(directory, "stats.log");
+        try (StatsStore store = new StatsStore(file, 60_000)) {
+            PlayerStats anna = store.getStats("anna");
+            anna.record(Outcome.WIN);
+            anna.record(Outcome.WIN);
+            anna.record(Outcome.BUST);
+            store.getStats("bruno").record(Outcome.TIE);
+        }
+        for (int open = 0; open < 2; open++) { // la seconda apertura legge il log già compattato
+            try (StatsStore store = new StatsStore(file, 60_000)) {
+                assertStats(store.getStats("anna"), 3, 2, 1);
+                assertStats(store.getStats("bruno"), 1, 0, 1);
+            }
+        }
+    }
+
+    @Test
+    void openingCompactsResults() throws IOException {
+        File file = new File(directory, "stats.log");
+        try (StatsStore store = new StatsStore(file, 60_000)) {
+            for (int i = 0; i < 100; i++) {
+                store.getStats("anna").record(Outcome.LOSS);
+            }
+            store.flush();
+            assertEquals(100, Files.readAllLines(file.toPath()).stream().filter(line -> line.startsWith("R,")).count());
+        }
+        new StatsStore(file, 60_000).close();
+        assertEquals(List.of("S,anna,100,0,100"), Files.readAllLines(file.toPath()));
+    }
+
+    @Test
+    void fileIsLockedWhileOpen() throws IOException {
+        File file = new File(directory, "stats.log");
+        try (StatsStore store = new StatsStore(file, 60_000)) {
+            assertThrows(IOException.class, () -> new StatsStore(file, 60_000));
+        }
+        new StatsStore(file, 60_000).close(); // il lock viene rilasciato alla chiusura
+    }
+
+    private static void assertStats(PlayerStats stats, int played, int won, int lost) {
+        assertEquals(played, stats.getGamesPlayed());
+        assertEquals(won, stats.getGamesWon());
+        assertEquals(lost, stats.getGamesLost());
+    }
+}